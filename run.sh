@@ -29,7 +29,10 @@ if [ ! -f "lib/slf4j-simple-1.7.36.jar" ]; then
 fi
 
 # Run the application
-java -cp "src:lib/mysql-connector-j-8.3.0.jar:lib/slf4j-api-1.7.36.jar:lib/slf4j-simple-1.7.36.jar" app.MainApp
+# Extra JVM options go in SPENDMATE_OPTS, e.g. the embedded file database
+# (requires an H2 driver jar in lib/):
+#   SPENDMATE_OPTS="-Dspendmate.db.mode=embedded" ./run.sh
+java $SPENDMATE_OPTS -cp "src:lib/*" app.MainApp
 
 echo ""
 echo "Application closed."
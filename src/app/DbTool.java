@@ -0,0 +1,197 @@
+package app;
+
+import app.dao.ArchiveManager;
+import app.dao.DBConnection;
+import app.dao.DBConnection.Backend;
+import app.dao.DatabaseMigrator;
+import app.dao.PartitionMaintenance;
+import app.dao.Rollup;
+import app.dao.SchemaManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Command line maintenance tool for the SpendMate database.
+ *
+ * Usage: java -cp "src:lib/*" app.DbTool &lt;command&gt;
+ *
+ * Commands:
+ *   migrate-embedded   Copy the MySQL dataset into the embedded file database
+ *   rebuild-rollups    Recompute the daily and monthly rollups from the transactions table
+ *   partition          Partition the MySQL transactions table by month and run partition maintenance
+ *   partition-verify   Show the partitions a month query and a day query read
+ *   archive            Move months older than the archive horizon to compressed archive files
+ *   archive-restore    Move an archived month back into the transactions table
+ *   archive-verify     Check archive files against their checksums and row counts
+ */
+public class DbTool {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            printUsage();
+            return;
+        }
+        try {
+            switch (args[0]) {
+                case "migrate-embedded":
+                    migrateEmbedded();
+                    break;
+                case "rebuild-rollups":
+                    rebuildRollups();
+                    break;
+                case "partition":
+                    partition();
+                    break;
+                case "partition-verify":
+                    verifyPartitions(args.length > 1 ? YearMonth.parse(args[1]) : YearMonth.now());
+                    break;
+                case "archive":
+                    archive();
+                    break;
+                case "archive-restore":
+                    if (args.length < 2) {
+                        printUsage();
+                        return;
+                    }
+                    restoreArchive(YearMonth.parse(args[1]));
+                    break;
+                case "archive-verify":
+                    verifyArchive(args.length > 1 ? YearMonth.parse(args[1]) : null);
+                    break;
+                default:
+                    printUsage();
+                    break;
+            }
+        } catch (Exception e) {
+            System.out.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java -cp \"src:lib/*\" app.DbTool <command>");
+        System.out.println();
+        System.out.println("Commands:");
+        System.out.println("  migrate-embedded   Copy the MySQL dataset into the embedded file database");
+        System.out.println("                     (-Dspendmate.db.file selects the file, default: spendmate)");
+        System.out.println("  rebuild-rollups    Recompute the daily and monthly rollups from the transactions table");
+        System.out.println("                     (-Dspendmate.db.mode selects the database, default: mysql)");
+        System.out.println("  partition          Partition the MySQL transactions table by month, create upcoming");
+        System.out.println("                     partitions and expire old ones (-Dspendmate.partitions.monthsAhead,");
+        System.out.println("                     retainMonths, expire=archive|drop); no-op on the embedded database");
+        System.out.println("  partition-verify [YYYY-MM]");
+        System.out.println("                     Show the partitions a month query and a day query read (EXPLAIN)");
+        System.out.println("  archive            Move months older than the horizon to compressed archive files");
+        System.out.println("                     (-Dspendmate.archive.horizonMonths, default 24; -Dspendmate.archive.dir)");
+        System.out.println("  archive-restore YYYY-MM");
+        System.out.println("                     Move an archived month back into the transactions table");
+        System.out.println("  archive-verify [YYYY-MM]");
+        System.out.println("                     Check archive files against their checksums and row counts");
+    }
+
+    private static void migrateEmbedded() throws Exception {
+        int batchSize = Integer.getInteger("spendmate.migrate.batchSize", 1000);
+        try (Connection source = DBConnection.openDirect(Backend.MYSQL);
+             Connection target = DBConnection.openDirect(Backend.EMBEDDED)) {
+            // Only read the source: a copy must not migrate the production schema as a side effect
+            int sourceVersion = SchemaManager.readVersion(source);
+            if (sourceVersion != SchemaManager.SCHEMA_VERSION) {
+                throw new SQLException("The MySQL schema is at version " + sourceVersion + ", expected "
+                        + SchemaManager.SCHEMA_VERSION + "; start the app against it once to migrate it, then copy");
+            }
+            SchemaManager.ensureSchema(target);
+
+            long start = System.currentTimeMillis();
+            long rows = new DatabaseMigrator(batchSize).copyAll(source, target);
+            int rollupRows = Rollup.rebuildAll(target);
+            System.out.println("Migrated " + rows + " rows in " + (System.currentTimeMillis() - start) + " ms"
+                    + " (" + rollupRows + " rollup rows rebuilt)");
+        }
+    }
+
+    private static void rebuildRollups() throws Exception {
+        try (Connection conn = DBConnection.openDirect(DBConnection.getBackend())) {
+            SchemaManager.ensureSchema(conn);
+            long start = System.currentTimeMillis();
+            int rows = Rollup.rebuildAll(conn);
+            System.out.println("Rebuilt " + rows + " rollup rows in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private static void partition() throws Exception {
+        PartitionMaintenance maintenance = new PartitionMaintenance();
+        try (Connection conn = DBConnection.openDirect(DBConnection.getBackend())) {
+            SchemaManager.ensureSchema(conn);
+            if (!PartitionMaintenance.isSupported(conn)) {
+                System.out.println("Partitioning is not supported by this database; nothing to do");
+                return;
+            }
+            long start = System.currentTimeMillis();
+            if (maintenance.partitionTable(conn)) {
+                System.out.println("Partitioned " + DBConnection.TABLE_TRANSACTIONS + " by month in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+            int changed = maintenance.maintain(conn);
+            List<String> partitions = maintenance.listPartitions(conn);
+            System.out.println(changed + " partitions created or expired; " + partitions.size()
+                    + " partitions: " + String.join(", ", partitions));
+        }
+    }
+
+    private static void verifyPartitions(YearMonth ym) throws Exception {
+        PartitionMaintenance maintenance = new PartitionMaintenance();
+        try (Connection conn = DBConnection.openDirect(DBConnection.getBackend())) {
+            if (!maintenance.isPartitioned(conn)) {
+                System.out.println(DBConnection.TABLE_TRANSACTIONS + " is not partitioned");
+                return;
+            }
+            List<String> read = maintenance.explainPruning(conn, ym);
+            System.out.println("Month " + ym + " query reads: " + read.get(0) + pruned(read.get(0)));
+            System.out.println("Day " + ym.atDay(1) + " query reads: " + read.get(1) + pruned(read.get(1)));
+        }
+    }
+
+    private static String pruned(String partitions) {
+        return partitions != null && !partitions.contains(",") ? " (single partition)" : " (NOT pruned to one partition)";
+    }
+
+    private static void archive() throws Exception {
+        ArchiveManager archive = new ArchiveManager();
+        try (Connection conn = DBConnection.openDirect(DBConnection.getBackend())) {
+            SchemaManager.ensureSchema(conn);
+            long start = System.currentTimeMillis();
+            long rows = archive.archiveExpired(conn);
+            System.out.println("Archived " + rows + " transactions older than " + archive.getHorizon()
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private static void restoreArchive(YearMonth ym) throws Exception {
+        try (Connection conn = DBConnection.openDirect(DBConnection.getBackend())) {
+            SchemaManager.ensureSchema(conn);
+            new ArchiveManager().restoreMonth(conn, ym);
+        }
+    }
+
+    private static void verifyArchive(YearMonth ym) throws Exception {
+        ArchiveManager archive = new ArchiveManager();
+        try (Connection conn = DBConnection.openDirect(DBConnection.getBackend())) {
+            SchemaManager.ensureSchema(conn);
+            List<ArchiveManager.Verification> results = ym != null
+                    ? List.of(archive.verifyMonth(conn, ym))
+                    : archive.verifyAll(conn);
+            boolean ok = true;
+            for (ArchiveManager.Verification v : results) {
+                System.out.println(v);
+                ok &= v.isOk();
+            }
+            System.out.println(results.size() + " archived months checked");
+            if (!ok) {
+                System.exit(2);
+            }
+        }
+    }
+}
@@ -1,30 +1,107 @@
 package app;
 
 import app.dao.BudgetDAO;
+import app.dao.BudgetStore;
 import app.dao.DBConnection;
+import app.dao.InMemoryBudgetStore;
+import app.dao.InMemoryTransactionStore;
+import app.dao.InMemoryUserStore;
+import app.dao.OfflineJournal;
+import app.dao.PartitionMaintenance;
+import app.dao.SchemaManager;
 import app.dao.TransactionDAO;
+import app.dao.TransactionStore;
 import app.dao.UserDAO;
+import app.dao.UserStore;
+import app.service.BackgroundExecutor;
 import app.service.BudgetService;
 import app.service.TransactionService;
 import app.service.UserService;
+import app.service.WriteBehindQueue;
 import app.ui.LoginPanel;
 import app.ui.MainFrame;
-import java.sql.Connection;
 import javax.swing.*;
 import java.awt.*;
+import java.sql.Connection;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class MainApp {
+
+    // Storage backend: "mysql" (default) or "memory" (-Dspendmate.storage=memory)
+    private static final String STORAGE = System.getProperty("spendmate.storage", "mysql");
+
+    // Shared so in-memory data survives logout (which re-runs main)
+    private static final InMemoryTransactionStore MEMORY_TRANSACTIONS = new InMemoryTransactionStore();
+    private static final InMemoryBudgetStore MEMORY_BUDGETS = new InMemoryBudgetStore();
+    private static final InMemoryUserStore MEMORY_USERS = new InMemoryUserStore();
+
+    // Running totals vs. database check interval (-Dspendmate.totals.reconcileMs, 0 disables)
+    private static final long RECONCILE_MS = Long.getLong("spendmate.totals.reconcileMs", 300_000L);
+
+    // main() runs again after logout; the previous session's job is cancelled then
+    private static ScheduledFuture<?> reconciliation;
+
+    // Monthly partition maintenance interval on MySQL (-Dspendmate.partitions.maintainMs, 0 disables)
+    private static final long PARTITION_MAINTAIN_MS = Long.getLong("spendmate.partitions.maintainMs", 86_400_000L);
+
+    // Started once per JVM; not tied to a login session
+    private static ScheduledFuture<?> partitionMaintenance;
+
+    // Journaled, group-committed inserts (-Dspendmate.writeBehind=true); one queue per JVM
+    private static final boolean WRITE_BEHIND = Boolean.getBoolean("spendmate.writeBehind");
+    private static WriteBehindQueue writeBehind;
+
+    // Local journal of writes made while MySQL is unreachable (-Dspendmate.offline=true); one per JVM
+    private static final boolean OFFLINE = Boolean.getBoolean("spendmate.offline");
+    // How often pending journal entries are replayed (-Dspendmate.offline.replayMs)
+    private static final long OFFLINE_REPLAY_MS = Long.getLong("spendmate.offline.replayMs", 5_000L);
+    private static OfflineJournal offlineJournal;
+
+    private static boolean isMemoryStorage() {
+        return "memory".equalsIgnoreCase(STORAGE);
+    }
+
     public static void main(String[] args) {
         try {
-            Connection conn = DBConnection.getConnection();
-            System.out.println("Database initialized successfully: spendmate.db");
+            TransactionStore transactionDAO;
+            BudgetStore budgetDAO;
+            UserStore userDAO;
+
+            if (isMemoryStorage()) {
+                // Local mode: no database server, data lives for the lifetime of the JVM
+                transactionDAO = MEMORY_TRANSACTIONS;
+                budgetDAO = MEMORY_BUDGETS;
+                userDAO = MEMORY_USERS;
+                System.out.println("Storage: in-memory");
+            } else {
+                // Schema bootstrap runs in the background so the login window paints right away;
+                // DAO calls made before it finishes wait for it inside DBConnection.getConnection().
+                SchemaManager.initializeAsync().thenRun(() ->
+                        System.out.println("Database ready: " + DBConnection.getDatabaseName()));
 
-            TransactionDAO transactionDAO = new TransactionDAO();
-            BudgetDAO budgetDAO = new BudgetDAO();
-            UserDAO userDAO = new UserDAO();
+                transactionDAO = new TransactionDAO();
+                budgetDAO = new BudgetDAO();
+                userDAO = new UserDAO();
+                startPartitionMaintenance();
+                if (OFFLINE) {
+                    OfflineJournal offline = startOfflineJournal(transactionDAO, budgetDAO);
+                    transactionDAO = offline.transactionStore();
+                    budgetDAO = offline.budgetStore();
+                }
+            }
             
             TransactionService transactionService = new TransactionService(transactionDAO);
-            BudgetService budgetService = new BudgetService(budgetDAO, transactionDAO);
+            if (WRITE_BEHIND) {
+                transactionService.setWriteBehind(startWriteBehind(transactionDAO));
+            }
+            if (reconciliation != null) {
+                reconciliation.cancel(false);
+            }
+            if (RECONCILE_MS > 0) {
+                reconciliation = transactionService.startTotalsReconciliation(RECONCILE_MS);
+            }
+            BudgetService budgetService = new BudgetService(budgetDAO, transactionService);
             UserService userService = new UserService(userDAO);
 
             SwingUtilities.invokeLater(() -> {
@@ -51,4 +128,55 @@ public class MainApp {
             e.printStackTrace();
         }
     }
+
+    private static synchronized WriteBehindQueue startWriteBehind(TransactionStore store) throws Exception {
+        if (writeBehind == null) {
+            WriteBehindQueue queue = new WriteBehindQueue(store);
+            queue.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    queue.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }, "spendmate-write-behind-flush"));
+            writeBehind = queue;
+        }
+        return writeBehind;
+    }
+
+    private static synchronized OfflineJournal startOfflineJournal(TransactionStore transactions, BudgetStore budgets)
+            throws Exception {
+        if (offlineJournal == null) {
+            OfflineJournal journal = new OfflineJournal(transactions, budgets);
+            journal.open();
+            // Drains the journal once the server is reachable again; a no-op while it is empty
+            BackgroundExecutor.scheduler().scheduleWithFixedDelay(() -> {
+                if (journal.getPendingCount() > 0) {
+                    int replayed = journal.replay();
+                    if (replayed > 0) {
+                        System.out.println("Offline journal: stored " + replayed + " changes, "
+                                + journal.getPendingCount() + " pending");
+                    }
+                }
+            }, 0, OFFLINE_REPLAY_MS, TimeUnit.MILLISECONDS);
+            offlineJournal = journal;
+        }
+        return offlineJournal;
+    }
+
+    private static void startPartitionMaintenance() {
+        if (partitionMaintenance != null || PARTITION_MAINTAIN_MS <= 0) {
+            return;
+        }
+        PartitionMaintenance maintenance = new PartitionMaintenance();
+        // No-op unless the transactions table was partitioned with DbTool partition
+        partitionMaintenance = BackgroundExecutor.scheduler().scheduleWithFixedDelay(() -> {
+            try (Connection conn = DBConnection.getConnection()) {
+                maintenance.maintain(conn);
+            } catch (Exception e) {
+                System.out.println("Partition maintenance failed: " + e.getMessage());
+            }
+        }, 0, PARTITION_MAINTAIN_MS, TimeUnit.MILLISECONDS);
+    }
 }
@@ -0,0 +1,85 @@
+package app;
+
+import app.dao.InMemoryTransactionStore;
+import app.dao.TransactionStore;
+import app.dao.UserContext;
+import app.model.Transaction;
+import app.service.AsyncTransactionService;
+import app.service.TransactionService;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark of the dashboard's independent reads, issued one after another
+ * through TransactionService and all at once through AsyncTransactionService.
+ * The store adds a fixed latency to every call, like a remote database, so
+ * the sequential reads should take about sum(latency) and the async ones
+ * about max(latency).
+ *
+ * Usage: java -cp "src:lib/*" app.TestAsync [latency ms]   (default 50)
+ */
+public class TestAsync {
+
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        long latency = args.length > 0 ? Long.parseLong(args[0]) : 50;
+        System.out.println("Benchmarking dashboard reads with " + latency + " ms store latency...\n");
+
+        UserContext.setUserId(1);
+        InMemoryTransactionStore memory = new InMemoryTransactionStore();
+        List<Transaction> rows = new ArrayList<>();
+        for (int day = 1; day <= 28; day++) {
+            rows.add(new Transaction("expense", "2025-06-" + String.format("%02d", day), "Food", 1000 + day, "bench"));
+        }
+        rows.add(new Transaction("income", "2025-06-25", "Salary", 300000, "bench"));
+        memory.insertAll(rows);
+
+        AtomicInteger calls = new AtomicInteger();
+        TransactionStore slow = (TransactionStore) Proxy.newProxyInstance(TransactionStore.class.getClassLoader(),
+                new Class<?>[]{TransactionStore.class}, (proxy, method, methodArgs) -> {
+                    calls.incrementAndGet();
+                    Thread.sleep(latency);
+                    try {
+                        return method.invoke(memory, methodArgs);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        String ym = "2025-06";
+        LocalDate day = LocalDate.of(2025, 6, 15);
+        System.out.printf("%-6s %12s %12s %12s%n", "run", "store calls", "sequential", "async");
+        for (int run = 1; run <= RUNS; run++) {
+            // A fresh service each run, so the month totals are seeded from the store again
+            TransactionService service = new TransactionService(slow);
+            calls.set(0);
+            long start = System.nanoTime();
+            service.getMonthIncome(ym);
+            service.getMonthExpense(ym);
+            service.getDayDetails(day);
+            service.getMonthCount(ym);
+            service.getCategoryBreakdown("2025-01", ym, "expense");
+            long sequential = (System.nanoTime() - start) / 1_000_000;
+            int sequentialCalls = calls.get();
+
+            AsyncTransactionService async = new AsyncTransactionService(new TransactionService(slow));
+            start = System.nanoTime();
+            CompletableFuture.allOf(
+                    async.getMonthTotalsAsync(ym),
+                    async.getDayDetailsAsync(day),
+                    async.getMonthCountAsync(ym),
+                    async.getCategoryBreakdownAsync("2025-01", ym, "expense")
+            ).join();
+            long concurrent = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("%-6d %12d %9d ms %9d ms%n", run, sequentialCalls, sequential, concurrent);
+        }
+        UserContext.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package app;
 
 import app.dao.DBConnection;
+import app.dao.SchemaManager;
 import app.dao.UserDAO;
 import app.model.User;
 import java.sql.*;
@@ -9,6 +10,13 @@ public class TestDB {
     public static void main(String[] args) {
         System.out.println("Testing database connection and user registration...\n");
         
+        try {
+            SchemaManager.ensureSchema();
+        } catch (SQLException e) {
+            System.out.println("ERROR: schema bootstrap failed: " + e.getMessage());
+            return;
+        }
+
         try (Connection conn = DBConnection.getConnection();
              Statement stmt = conn.createStatement()) {
             
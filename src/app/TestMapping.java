@@ -0,0 +1,171 @@
+package app;
+
+import app.dao.DBConnection;
+import app.dao.SchemaManager;
+import app.dao.TransactionDAO;
+import app.dao.TransactionProjection;
+import app.dao.UserContext;
+import app.dao.UserDAO;
+import app.model.Transaction;
+import app.model.User;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Microbenchmark of reading a period listing from the configured database:
+ * SELECT * mapped by column name (as before projections) against each
+ * TransactionProjection read through TransactionDAO, which maps by index.
+ * Prints rows per second and the column bytes each query transfers.
+ *
+ * Usage: java -cp "src:lib/*" app.TestMapping [rows]   (default 100000)
+ */
+public class TestMapping {
+
+    private static final String[] CATEGORIES = {"Food", "Transport", "Shopping", "Bills", "Other"};
+    private static final String FROM = "2025-01-01";
+    private static final String TO = "2025-12-31";
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        System.out.println("Benchmarking transaction row mapping...\n");
+
+        try {
+            SchemaManager.ensureSchema();
+        } catch (SQLException e) {
+            System.out.println("ERROR: schema bootstrap failed: " + e.getMessage());
+            return;
+        }
+
+        UserDAO userDAO = new UserDAO();
+        User user = new User("benchuser_" + System.currentTimeMillis(), "password123", "bench@example.com");
+        if (!userDAO.registerUser(user)) {
+            System.out.println("ERROR: could not register the benchmark user");
+            return;
+        }
+        UserContext.setUserId(user.getId());
+
+        try {
+            TransactionDAO dao = new TransactionDAO();
+            Random random = new Random(42);
+            for (int done = 0; done < rows; ) {
+                List<Transaction> batch = new ArrayList<>();
+                for (int i = 0; i < 5000 && done < rows; i++, done++) {
+                    LocalDate day = LocalDate.parse(FROM).plusDays(random.nextInt(365));
+                    batch.add(new Transaction("expense", day.toString(), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                            1 + random.nextInt(1000), "Lunch with the team at the usual place #" + done));
+                }
+                dao.insertAll(batch);
+            }
+            System.out.println("Inserted " + rows + " rows.\n");
+
+            System.out.printf("%-22s %14s %14s%n", "query", "rows/s", "bytes/row");
+            String selectAll = "SELECT * FROM " + DBConnection.TABLE_TRANSACTIONS
+                    + " WHERE `user_id`=? AND `date` BETWEEN ? AND ? ORDER BY `date` ASC, `id` ASC";
+            report("SELECT *, by name", rows, time(() -> readByName(selectAll, user.getId()).size()),
+                    bytes(selectAll, user.getId()));
+            for (TransactionProjection projection : TransactionProjection.values()) {
+                String sql = "SELECT " + projection.getColumns() + " FROM " + DBConnection.TABLE_TRANSACTIONS
+                        + " WHERE `user_id`=? AND `date` BETWEEN ? AND ? ORDER BY `date` ASC, `id` ASC";
+                report(projection + ", by index", rows, time(() -> dao.findByPeriod(FROM, TO, projection).size()),
+                        bytes(sql, user.getId()));
+            }
+        } catch (Exception e) {
+            System.out.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            cleanUp(user.getId());
+            UserContext.clear();
+        }
+    }
+
+    private interface Read {
+        int run() throws SQLException;
+    }
+
+    // Best of RUNS timed reads (after one warm-up), in nanoseconds
+    private static long time(Read read) throws SQLException {
+        read.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            read.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, int rows, long nanos, long bytes) {
+        System.out.printf("%-22s %14d %14d%n", name, rows * 1_000_000_000L / Math.max(1, nanos), bytes / Math.max(1, rows));
+    }
+
+    // How rows were mapped before TransactionRowMapper: one name lookup per column and row
+    private static List<Transaction> readByName(String sql, int userId) throws SQLException {
+        List<Transaction> list = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = prepare(conn, sql, userId)) {
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                list.add(new Transaction(
+                        rs.getInt("id"),
+                        rs.getString("type"),
+                        rs.getString("date"),
+                        rs.getString("category"),
+                        rs.getInt("amount"),
+                        rs.getString("memo")
+                ));
+            }
+        }
+        return list;
+    }
+
+    // Size of the column values a query returns: strings as UTF-8, numbers and dates at their wire width
+    private static long bytes(String sql, int userId) throws SQLException {
+        long total = 0;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = prepare(conn, sql, userId)) {
+            ResultSet rs = pstmt.executeQuery();
+            ResultSetMetaData meta = rs.getMetaData();
+            while (rs.next()) {
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    switch (meta.getColumnType(i)) {
+                        case Types.INTEGER: total += 4; break;
+                        case Types.DATE: total += 4; break;
+                        case Types.TIMESTAMP: total += 8; break;
+                        default:
+                            String value = rs.getString(i);
+                            total += value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0;
+                            break;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql, int userId) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, userId);
+        pstmt.setObject(2, LocalDate.parse(FROM));
+        pstmt.setObject(3, LocalDate.parse(TO));
+        return pstmt;
+    }
+
+    private static void cleanUp(int userId) {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String table : new String[]{DBConnection.TABLE_TRANSACTIONS, DBConnection.TABLE_DAILY_TOTALS,
+                    DBConnection.TABLE_MONTHLY_TOTALS, DBConnection.TABLE_USERS}) {
+                String column = table.equals(DBConnection.TABLE_USERS) ? "id" : "user_id";
+                stmt.executeUpdate("DELETE FROM " + table + " WHERE `" + column + "` = " + userId);
+            }
+            System.out.println("\nBenchmark user cleaned up.");
+        } catch (SQLException e) {
+            System.out.println("ERROR: cleanup failed: " + e.getMessage());
+        }
+    }
+}
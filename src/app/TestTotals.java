@@ -0,0 +1,146 @@
+package app;
+
+import app.dao.DBConnection;
+import app.dao.SchemaManager;
+import app.dao.TransactionDAO;
+import app.dao.UserContext;
+import app.dao.UserDAO;
+import app.model.Transaction;
+import app.model.User;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the total queries against the configured database as the
+ * transactions table grows. Totals are read from the rollups, so their time
+ * should stay flat while a raw SUM over the transactions keeps growing.
+ *
+ * Usage: java -cp "src:lib/*" app.TestTotals [rows,rows,...]   (default 10000,100000,1000000)
+ */
+public class TestTotals {
+
+    private static final String[] CATEGORIES = {"Food", "Transport", "Shopping", "Bills", "Other"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 730;
+    private static final int RUNS = 200;
+
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "10000,100000,1000000";
+        System.out.println("Benchmarking total queries as the transactions table grows...\n");
+
+        try {
+            SchemaManager.ensureSchema();
+        } catch (SQLException e) {
+            System.out.println("ERROR: schema bootstrap failed: " + e.getMessage());
+            return;
+        }
+
+        UserDAO userDAO = new UserDAO();
+        User user = new User("benchuser_" + System.currentTimeMillis(), "password123", "bench@example.com");
+        if (!userDAO.registerUser(user)) {
+            System.out.println("ERROR: could not register the benchmark user");
+            return;
+        }
+        UserContext.setUserId(user.getId());
+
+        try {
+            TransactionDAO dao = new TransactionDAO();
+            Random random = new Random(42);
+            int rows = 0;
+            System.out.printf("%10s %12s %12s %12s %12s%n", "rows", "month (us)", "year (us)", "day (us)", "raw year (us)");
+            for (String size : sizes.split(",")) {
+                int target = Integer.parseInt(size.trim());
+                while (rows < target) {
+                    List<Transaction> batch = new ArrayList<>();
+                    for (int i = 0; i < 5000 && rows < target; i++, rows++) {
+                        LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+                        boolean income = random.nextInt(10) == 0;
+                        batch.add(new Transaction(income ? "income" : "expense", day.toString(),
+                                income ? "Salary" : CATEGORIES[random.nextInt(CATEGORIES.length)],
+                                1 + random.nextInt(1000), "bench"));
+                    }
+                    dao.insertAll(batch);
+                }
+
+                // Each call asks for a different period so no database result cache can answer it
+                long month = time(i -> dao.getTotalExpenseOfMonth(YearMonth.from(day(i)).toString()));
+                long year = time(i -> dao.getTotalByType("expense", year(i) + "-01-01", year(i) + "-12-31"));
+                long day = time(i -> dao.getTotalExpenseOfDay(day(i).toString()));
+                long raw = time(i -> rawExpense(user.getId(), year(i) + "-01-01", (year(i) + 1) + "-01-01"));
+                System.out.printf("%10d %12d %12d %12d %12d%n", rows, month, year, day, raw);
+
+                int fromRollup = dao.getTotalByType("expense", "2025-01-01", "2025-12-31");
+                int fromRows = rawExpense(user.getId(), "2025-01-01", "2026-01-01");
+                if (fromRollup != fromRows) {
+                    System.out.println("✗ Rollup total " + fromRollup + " differs from raw sum " + fromRows);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            cleanUp(user.getId());
+            UserContext.clear();
+        }
+    }
+
+    private interface Query {
+        int run(int i) throws SQLException;
+    }
+
+    private static LocalDate day(int i) {
+        return FIRST_DAY.plusDays(i * 7L % DAYS);
+    }
+
+    private static int year(int i) {
+        return FIRST_DAY.getYear() + i % 2;
+    }
+
+    // Median microseconds per call, after a warm-up of the same length
+    private static long time(Query query) throws SQLException {
+        for (int i = 0; i < RUNS; i++) {
+            query.run(i);
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2] / 1000;
+    }
+
+    // What a total cost before the rollups: a scan of the period's rows
+    private static int rawExpense(int userId, String from, String to) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(`amount`),0) FROM " + DBConnection.TABLE_TRANSACTIONS + " " +
+                     "WHERE `user_id`=? AND `type`='expense' AND `date` >= ? AND `date` < ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(from));
+            pstmt.setObject(3, LocalDate.parse(to));
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void cleanUp(int userId) {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String table : new String[]{DBConnection.TABLE_TRANSACTIONS, DBConnection.TABLE_DAILY_TOTALS,
+                    DBConnection.TABLE_MONTHLY_TOTALS, DBConnection.TABLE_USERS}) {
+                String column = table.equals(DBConnection.TABLE_USERS) ? "id" : "user_id";
+                stmt.executeUpdate("DELETE FROM " + table + " WHERE `" + column + "` = " + userId);
+            }
+            System.out.println("\nBenchmark user cleaned up.");
+        } catch (SQLException e) {
+            System.out.println("ERROR: cleanup failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package app.dao;
+
+import app.model.Transaction;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for closed-out months.
+ *
+ * {@link #archiveMonth(Connection, YearMonth)} moves every transaction of a
+ * month (all users) out of the transactions table into a gzip file
+ * {@code transactions-YYYY-MM.bin.gz} in the archive directory, next to a
+ * {@code .sha256} checksum file, and records the month in
+ * {@code SpendMate_archived_months}. The month's rollup rows are kept, so
+ * totals, dashboards and category reports still cover archived months, and
+ * {@link TransactionDAO#findByPeriod} merges archived rows into its results.
+ *
+ * Settings: {@code -Dspendmate.archive.dir} (default {@code archive}) and
+ * {@code -Dspendmate.archive.horizonMonths} (default 24): months that ended
+ * more than that many months ago are archived by {@link #archiveExpired(Connection)}.
+ */
+public class ArchiveManager {
+
+    private static final String TABLE = DBConnection.TABLE_TRANSACTIONS;
+    private static final String REGISTRY = DBConnection.TABLE_ARCHIVED_MONTHS;
+
+    // File layout: magic, format version, month, then one record per row and a false end marker
+    private static final String MAGIC = "SPENDMATE-ARCHIVE";
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path dir;
+    private final int horizonMonths;
+
+    public ArchiveManager() {
+        this(Paths.get(System.getProperty("spendmate.archive.dir", "archive")),
+             Integer.getInteger("spendmate.archive.horizonMonths", 24));
+    }
+
+    public ArchiveManager(Path dir, int horizonMonths) {
+        if (horizonMonths < 1) {
+            throw new IllegalArgumentException("horizonMonths must be positive");
+        }
+        this.dir = dir;
+        this.horizonMonths = horizonMonths;
+    }
+
+    /** Result of checking one archive file. */
+    public static class Verification {
+        private final String yearMonth;
+        private final boolean ok;
+        private final String message;
+
+        Verification(String yearMonth, boolean ok, String message) {
+            this.yearMonth = yearMonth;
+            this.ok = ok;
+            this.message = message;
+        }
+
+        public String getYearMonth() { return yearMonth; }
+        public boolean isOk() { return ok; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return yearMonth + ": " + (ok ? "OK" : "FAILED") + " - " + message;
+        }
+    }
+
+    // One archived row: the transaction and its owner
+    private static final class ArchivedRow {
+        private final int userId;
+        private final Transaction transaction;
+
+        ArchivedRow(int userId, Transaction transaction) {
+            this.userId = userId;
+            this.transaction = transaction;
+        }
+    }
+
+    /**
+     * @return First month that is still kept in the transactions table
+     */
+    public YearMonth getHorizon() {
+        return YearMonth.now().minusMonths(horizonMonths);
+    }
+
+    /**
+     * Archive every month older than the horizon that still has rows.
+     *
+     * @return Number of transactions archived
+     */
+    public long archiveExpired(Connection conn) throws SQLException, IOException {
+        YearMonth horizon = getHorizon();
+        LocalDate oldest;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT MIN(`date`) FROM " + TABLE + " WHERE `date` < ?")) {
+            pstmt.setObject(1, horizon.atDay(1));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                oldest = rs.next() ? rs.getObject(1, LocalDate.class) : null;
+            }
+        }
+        if (oldest == null) {
+            return 0;
+        }
+        Map<String, String> archived = archivedMonths(conn, YearMonth.from(oldest), horizon);
+        long total = 0;
+        for (YearMonth ym = YearMonth.from(oldest); ym.isBefore(horizon); ym = ym.plusMonths(1)) {
+            if (archived.containsKey(ym.toString())) {
+                // Rows added to an archived month stay hot until the month is restored and re-archived
+                System.out.println("Skipping " + ym + ": already archived");
+                continue;
+            }
+            total += archiveMonth(conn, ym);
+        }
+        return total;
+    }
+
+    /**
+     * Move one month of transactions (all users) into an archive file.
+     * The rows are locked, written, synced and deleted in one database
+     * transaction; the file is removed again if the transaction fails.
+     *
+     * @return Number of transactions archived (0 if the month had none)
+     */
+    public int archiveMonth(Connection conn, YearMonth ym) throws SQLException, IOException {
+        if (!archivedMonths(conn, ym, ym).isEmpty()) {
+            throw new SQLException(ym + " is already archived; restore it first");
+        }
+        Files.createDirectories(dir);
+        Path file = fileOf(ym);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            String sql = "SELECT `id`, `user_id`, `type`, `date`, `category`, `amount`, `memo` FROM " + TABLE +
+                         " WHERE `date` >= ? AND `date` < ? ORDER BY `id` FOR UPDATE";
+            int rows = 0;
+            int maxId = 0;
+            MessageDigest digest = sha256();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setObject(1, ym.atDay(1));
+                pstmt.setObject(2, ym.plusMonths(1).atDay(1));
+                try (ResultSet rs = pstmt.executeQuery();
+                     DataOutputStream out = openWriter(tmp, digest, ym)) {
+                    TransactionRowMapper mapper = new TransactionRowMapper(rs);
+                    while (rs.next()) {
+                        Transaction t = mapper.map(rs);
+                        writeRow(out, rs.getInt("user_id"), t);
+                        rows++;
+                        maxId = t.getId();
+                    }
+                    out.writeBoolean(false);
+                }
+            }
+            if (rows == 0) {
+                Files.deleteIfExists(tmp);
+                conn.rollback();
+                return 0;
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true); // on disk before the rows are deleted
+            }
+            String checksum = HexFormat.of().formatHex(digest.digest());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.write(checksumFile(ym), (checksum + "  " + file.getFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM " + TABLE +
+                    " WHERE `date` >= ? AND `date` < ? AND `id` <= ?")) {
+                delete.setObject(1, ym.atDay(1));
+                delete.setObject(2, ym.plusMonths(1).atDay(1));
+                delete.setInt(3, maxId);
+                int deleted = delete.executeUpdate();
+                if (deleted != rows) {
+                    throw new SQLException("Archived " + rows + " rows of " + ym + " but deleted " + deleted);
+                }
+            }
+            try (PreparedStatement register = conn.prepareStatement("INSERT INTO " + REGISTRY +
+                    "(`year_month`, `file_name`, `row_count`, `sha256`) VALUES(?,?,?,?)")) {
+                register.setString(1, ym.toString());
+                register.setString(2, file.getFileName().toString());
+                register.setInt(3, rows);
+                register.setString(4, checksum);
+                register.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Archived " + rows + " transactions of " + ym + " to " + file);
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            conn.rollback();
+            Files.deleteIfExists(tmp);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(checksumFile(ym));
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Move an archived month back into the transactions table (ids are kept)
+     * and delete its archive files. The checksum is verified first.
+     *
+     * @return Number of transactions restored
+     */
+    public int restoreMonth(Connection conn, YearMonth ym) throws SQLException, IOException {
+        Verification check = verifyMonth(conn, ym);
+        if (!check.isOk()) {
+            throw new IOException("Refusing to restore " + ym + ": " + check.getMessage());
+        }
+        List<ArchivedRow> rows = readFile(ym);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // Rollups were never reduced when the month was archived, so they are left alone here
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + TABLE +
+                    "(`id`, `user_id`, `type`, `date`, `category`, `amount`, `memo`) VALUES(?,?,?,?,?,?,?)")) {
+                for (ArchivedRow row : rows) {
+                    Transaction t = row.transaction;
+                    insert.setInt(1, t.getId());
+                    insert.setInt(2, row.userId);
+                    insert.setString(3, t.getType());
+                    insert.setObject(4, t.getLocalDate());
+                    insert.setString(5, t.getCategory());
+                    insert.setInt(6, t.getAmount());
+                    insert.setString(7, t.getMemo());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement unregister = conn.prepareStatement(
+                    "DELETE FROM " + REGISTRY + " WHERE `year_month` = ?")) {
+                unregister.setString(1, ym.toString());
+                unregister.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        Files.deleteIfExists(fileOf(ym));
+        Files.deleteIfExists(checksumFile(ym));
+        System.out.println("Restored " + rows.size() + " transactions of " + ym);
+        return rows.size();
+    }
+
+    /**
+     * Check every archived month: file present, checksum matching both the
+     * {@code .sha256} file and the registry, and row count matching the registry.
+     */
+    public List<Verification> verifyAll(Connection conn) throws SQLException {
+        List<Verification> results = new ArrayList<>();
+        for (String month : archivedMonths(conn, YearMonth.of(1, 1), YearMonth.of(9999, 12)).keySet()) {
+            results.add(verifyMonth(conn, YearMonth.parse(month)));
+        }
+        return results;
+    }
+
+    public Verification verifyMonth(Connection conn, YearMonth ym) throws SQLException {
+        String sql = "SELECT `row_count`, `sha256` FROM " + REGISTRY + " WHERE `year_month` = ?";
+        int expectedRows;
+        String expectedSum;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ym.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return new Verification(ym.toString(), false, "month is not archived");
+                }
+                expectedRows = rs.getInt("row_count");
+                expectedSum = rs.getString("sha256");
+            }
+        }
+        Path file = fileOf(ym);
+        if (!Files.exists(file)) {
+            return new Verification(ym.toString(), false, "missing " + file);
+        }
+        try {
+            MessageDigest digest = sha256();
+            int rows;
+            try (InputStream in = new DigestInputStream(new BufferedInputStream(Files.newInputStream(file)), digest)) {
+                rows = readRows(in, ym).size();
+            }
+            String actualSum = HexFormat.of().formatHex(digest.digest());
+            String recorded = Files.exists(checksumFile(ym))
+                    ? new String(Files.readAllBytes(checksumFile(ym)), StandardCharsets.UTF_8).split("\\s+")[0]
+                    : null;
+            if (!actualSum.equals(expectedSum) || !actualSum.equals(recorded)) {
+                return new Verification(ym.toString(), false, "checksum mismatch (file " + actualSum + ")");
+            }
+            if (rows != expectedRows) {
+                return new Verification(ym.toString(), false, rows + " rows in file, " + expectedRows + " expected");
+            }
+            return new Verification(ym.toString(), true, rows + " rows, sha256 " + actualSum);
+        } catch (IOException e) {
+            return new Verification(ym.toString(), false, "unreadable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Archived transactions of one user within a date range, in (date, id) order.
+     * Reads only the files of archived months that overlap the range.
+     */
+    List<Transaction> findByPeriod(Connection conn, int userId, LocalDate from, LocalDate to) throws SQLException {
+        List<Transaction> list = new ArrayList<>();
+        if (to.isBefore(from)) {
+            return list;
+        }
+        for (String month : archivedMonths(conn, YearMonth.from(from), YearMonth.from(to)).keySet()) {
+            List<ArchivedRow> rows;
+            try {
+                rows = readFile(YearMonth.parse(month));
+            } catch (IOException e) {
+                throw new SQLException("Cannot read archive of " + month + " from " + dir, e);
+            }
+            for (ArchivedRow row : rows) {
+                LocalDate date = row.transaction.getLocalDate();
+                if (row.userId == userId && !date.isBefore(from) && !date.isAfter(to)) {
+                    list.add(row.transaction);
+                }
+            }
+        }
+        return list;
+    }
+
+    // year_month -> file name of the archived months in [from, to]
+    private static Map<String, String> archivedMonths(Connection conn, YearMonth from, YearMonth to) throws SQLException {
+        String sql = "SELECT `year_month`, `file_name` FROM " + REGISTRY +
+                     " WHERE `year_month` BETWEEN ? AND ? ORDER BY `year_month`";
+        Map<String, String> months = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    months.put(rs.getString("year_month"), rs.getString("file_name"));
+                }
+            }
+        }
+        return months;
+    }
+
+    private DataOutputStream openWriter(Path file, MessageDigest digest, YearMonth ym) throws IOException {
+        // The checksum covers the compressed bytes, so `sha256sum -c` can check the file as well
+        OutputStream raw = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), digest);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(raw)));
+        out.writeUTF(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(ym.toString());
+        return out;
+    }
+
+    private static void writeRow(DataOutputStream out, int userId, Transaction t) throws IOException {
+        out.writeBoolean(true);
+        out.writeInt(t.getId());
+        out.writeInt(userId);
+        out.writeUTF(t.getType());
+        out.writeUTF(t.getDate());
+        out.writeUTF(t.getCategory());
+        out.writeInt(t.getAmount());
+        out.writeBoolean(t.getMemo() != null);
+        if (t.getMemo() != null) {
+            out.writeUTF(t.getMemo());
+        }
+    }
+
+    private List<ArchivedRow> readFile(YearMonth ym) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(fileOf(ym)))) {
+            return readRows(in, ym);
+        }
+    }
+
+    private static List<ArchivedRow> readRows(InputStream raw, YearMonth ym) throws IOException {
+        List<ArchivedRow> rows = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw)))) {
+            if (!MAGIC.equals(in.readUTF()) || in.readInt() != FORMAT_VERSION || !ym.toString().equals(in.readUTF())) {
+                throw new IOException("Not a SpendMate archive of " + ym);
+            }
+            while (in.readBoolean()) {
+                int id = in.readInt();
+                int userId = in.readInt();
+                String type = in.readUTF();
+                String date = in.readUTF();
+                String category = in.readUTF();
+                int amount = in.readInt();
+                String memo = in.readBoolean() ? in.readUTF() : null;
+                rows.add(new ArchivedRow(userId, new Transaction(id, type, LocalDate.parse(date), category, amount, memo)));
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated archive of " + ym, e);
+        }
+        return rows;
+    }
+
+    private Path fileOf(YearMonth ym) {
+        return dir.resolve("transactions-" + ym + ".bin.gz");
+    }
+
+    private Path checksumFile(YearMonth ym) {
+        return dir.resolve("transactions-" + ym + ".bin.gz.sha256");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not found", e);
+        }
+    }
+}
@@ -2,17 +2,28 @@ package app.dao;
 
 import app.model.Budget;
 import java.sql.*;
+import java.util.Collection;
 
-public class BudgetDAO {
+/**
+ * JDBC budget store; budgets are per user ({@link UserContext}), one per month.
+ */
+public class BudgetDAO implements BudgetStore {
 
     private static final String TABLE = DBConnection.TABLE_BUDGETS;
 
+    // Same statement on MySQL and on the embedded H2 database (MySQL mode)
+    private static final String UPSERT_SQL = "INSERT INTO " + TABLE + "(`user_id`, `year_month`, `limit_amt`) " +
+            "VALUES(?, ?, ?) ON DUPLICATE KEY UPDATE `limit_amt` = VALUES(`limit_amt`)";
+
+    @Override
     public Budget findByYearMonth(String yearMonth) throws SQLException {
-        String sql = "SELECT * FROM " + TABLE + " WHERE `year_month` = ?";
+        String sql = "SELECT * FROM " + TABLE + " WHERE `user_id` = ? AND `year_month` = ?";
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, yearMonth);
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, yearMonth);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
@@ -26,24 +37,50 @@ public class BudgetDAO {
         return null;
     }
 
+    /**
+     * One round trip; the unique key on (user_id, year_month) makes it atomic.
+     */
+    @Override
     public void upsert(Budget b) throws SQLException {
-        Budget existing = findByYearMonth(b.getYearMonth());
-        if (existing == null) {
-            String sql = "INSERT INTO " + TABLE + "(`year_month`, `limit_amt`) VALUES(?, ?)";
-            try (Connection conn = DBConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, b.getYearMonth());
-                pstmt.setInt(2, b.getLimitAmt());
-                pstmt.executeUpdate();
-            }
-        } else {
-            String sql = "UPDATE " + TABLE + " SET `limit_amt`=? WHERE `year_month`=?";
-            try (Connection conn = DBConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, b.getLimitAmt());
-                pstmt.setString(2, b.getYearMonth());
-                pstmt.executeUpdate();
+        int userId = UserContext.requireUserId();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            bindUpsert(pstmt, userId, b);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Sent as one batch, which the MySQL driver rewrites into a single
+     * multi-row statement (rewriteBatchedStatements), in one transaction.
+     */
+    @Override
+    public void upsertAll(Collection<Budget> budgets) throws SQLException {
+        if (budgets.isEmpty()) {
+            return;
+        }
+        int userId = UserContext.requireUserId();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                for (Budget b : budgets) {
+                    bindUpsert(pstmt, userId, b);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
     }
+
+    private static void bindUpsert(PreparedStatement pstmt, int userId, Budget b) throws SQLException {
+        pstmt.setInt(1, userId);
+        pstmt.setString(2, b.getYearMonth());
+        pstmt.setInt(3, b.getLimitAmt());
+    }
 }
@@ -0,0 +1,23 @@
+package app.dao;
+
+import app.model.Budget;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Storage backend for monthly budgets, keyed by "YYYY-MM" within the
+ * logged-in user ({@link UserContext}).
+ *
+ * Implementations: {@link BudgetDAO} (JDBC) and {@link InMemoryBudgetStore}.
+ */
+public interface BudgetStore {
+
+    Budget findByYearMonth(String yearMonth) throws SQLException;
+
+    void upsert(Budget b) throws SQLException;
+
+    /**
+     * Set several months at once, atomically: either every budget is stored or none.
+     */
+    void upsertAll(Collection<Budget> budgets) throws SQLException;
+}
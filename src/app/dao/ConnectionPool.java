@@ -0,0 +1,377 @@
+package app.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool used by {@link DBConnection}.
+ *
+ * Connections handed out by {@link #borrow()} are lightweight handles around a
+ * pooled physical connection. Calling {@code close()} on a handle (for example
+ * at the end of a try-with-resources block) returns the physical connection to
+ * the pool instead of closing the socket.
+ *
+ * Features:
+ * - min/max pool size (the minimum is warmed up in the background)
+ * - idle eviction of connections unused for longer than the idle timeout
+ * - validation on borrow for connections that sat idle past the validation window
+ * - bounded wait time when every connection is in use
+ * - per-connection LRU cache of prepared statements keyed by SQL text
+ *
+ * @author SpendMate Team
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long validateAfterMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize,
+                          long maxWaitMillis, long idleTimeoutMillis, long validateAfterMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validateAfterMillis = validateAfterMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "spendmate-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, Math.min(idleTimeoutMillis / 2, 30_000L));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting at most the configured
+     * max wait time if every connection is in use.
+     *
+     * @return A pooled connection; closing it returns it to the pool
+     * @throws SQLException if the pool is exhausted or a new connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        long start = System.nanoTime();
+
+        waiters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection "
+                    + "(active=" + active.get() + ", max=" + maxSize + ")", "08001");
+        }
+
+        try {
+            PooledConnection pc = takeIdleOrCreate();
+            active.incrementAndGet();
+            recordBorrow(System.nanoTime() - start);
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (isUsable(pc)) {
+                return pc;
+            }
+            destroy(pc);
+        }
+        return create();
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastReleased < validateAfterMillis) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        created.increment();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pc, boolean broken) {
+        active.decrementAndGet();
+        try {
+            if (pc.statements != null) {
+                pc.statements.releaseAll();
+            }
+            if (broken || shutdown || !resetState(pc)) {
+                destroy(pc);
+            } else {
+                pc.lastReleased = System.currentTimeMillis();
+                // LIFO keeps the hottest connections in use and lets the tail age out
+                idle.offerFirst(pc);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(PooledConnection pc) {
+        try {
+            Connection c = pc.physical;
+            if (c.isClosed()) {
+                return false;
+            }
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (c.isReadOnly()) {
+                c.setReadOnly(false);
+            }
+            c.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        total.decrementAndGet();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void recordBorrow(long nanos) {
+        borrowCount.increment();
+        borrowNanos.add(nanos);
+        maxBorrowNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Evict connections idle longer than the idle timeout (never dropping below
+     * the minimum size) and top the pool back up to its minimum.
+     */
+    private void housekeep() {
+        if (shutdown) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && total.get() > minSize) {
+            PooledConnection pc = it.next();
+            if (now - pc.lastReleased > idleTimeoutMillis && idle.remove(pc)) {
+                destroy(pc);
+                evicted.increment();
+            }
+        }
+        while (total.get() < minSize && !shutdown) {
+            if (!permits.tryAcquire()) {
+                break;
+            }
+            try {
+                PooledConnection pc = create();
+                pc.lastReleased = System.currentTimeMillis();
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                System.err.println("Connection pool warm-up failed: " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the current pool state and borrow latency counters.
+     *
+     * @return Pool statistics
+     */
+    public PoolStats getStats() {
+        long count = borrowCount.sum();
+        return new PoolStats(
+                active.get(),
+                idle.size(),
+                waiters.get(),
+                total.get(),
+                maxSize,
+                count,
+                count == 0 ? 0 : borrowNanos.sum() / count / 1000,
+                maxBorrowNanos.get() / 1000,
+                timeouts.sum(),
+                created.sum(),
+                evicted.sum(),
+                statementHits.sum(),
+                statementMisses.sum(),
+                statementEvictions.sum()
+        );
+    }
+
+    /**
+     * Close every idle connection and stop housekeeping. Connections still in
+     * use are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastReleased;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize, statementHits, statementMisses, statementEvictions)
+                    : null;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Logical connection handed to callers. Each borrow gets its own handle so a
+     * stale reference cannot touch a connection that was already returned.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection owner;
+        private boolean closed;
+        private boolean broken;
+
+        Handle(PooledConnection owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(owner, broken);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || owner.physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + owner.physical + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (owner.statements != null && StatementCache.isCacheable(method, args)) {
+                int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                return owner.statements.prepare((String) args[0], keys, (Connection) proxy, () -> closed);
+            }
+            try {
+                return method.invoke(owner.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    // SQLState class 08 = connection exception; never hand this one out again
+                    if (state != null && state.startsWith("08")) {
+                        broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
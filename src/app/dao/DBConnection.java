@@ -1,13 +1,19 @@
 package app.dao;
 
+import java.awt.EventQueue;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * Database connection manager for SpendMate application.
- * Handles MySQL database initialization and connection pooling.
+ * Handles connection pooling for the configured backend. Schema creation is
+ * done by {@link SchemaManager}, which callers start explicitly at startup.
+ * 
+ * Backends (-Dspendmate.db.mode):
+ * - mysql (default): remote MySQL server
+ * - embedded: local file-backed H2 database in MySQL compatibility mode,
+ *   so the DAO SQL runs unchanged (needs the H2 driver jar in lib/)
  * 
  * Database Schema:
  * - SpendMate_transactions: Stores all income and expense transactions
@@ -25,93 +31,169 @@ public class DBConnection {
     private static final String PASSWORD = "user1234";
     
     private static final String URL = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + 
-            "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=Asia/Seoul&characterEncoding=UTF-8";
+            "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=Asia/Seoul&characterEncoding=UTF-8" +
+            "&useServerPrepStmts=true&cachePrepStmts=true&rewriteBatchedStatements=true" +
+            "&useCursorFetch=true";
     
+    // Embedded (file-backed) database; "spendmate" creates spendmate.mv.db in the working directory
+    private static final String EMBEDDED_FILE = System.getProperty("spendmate.db.file", "spendmate");
+    private static final String EMBEDDED_URL = "jdbc:h2:file:" + EMBEDDED_FILE +
+            ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    /**
+     * Supported storage backends.
+     */
+    public enum Backend {
+        MYSQL("com.mysql.cj.jdbc.Driver"),
+        EMBEDDED("org.h2.Driver");
+
+        private final String driverClass;
+
+        Backend(String driverClass) {
+            this.driverClass = driverClass;
+        }
+    }
+
+    private static final Backend BACKEND =
+            "embedded".equalsIgnoreCase(System.getProperty("spendmate.db.mode", "mysql")) ? Backend.EMBEDDED : Backend.MYSQL;
+
     // 테이블 이름 (다른 팀과 중복되지 않도록 SpendMate_ 접두사 사용)
     public static final String TABLE_TRANSACTIONS = "SpendMate_transactions";
     public static final String TABLE_BUDGETS = "SpendMate_budgets";
     public static final String TABLE_USERS = "SpendMate_users";
+    public static final String TABLE_DAILY_TOTALS = "SpendMate_daily_totals";
+    public static final String TABLE_MONTHLY_TOTALS = "SpendMate_monthly_totals";
+    public static final String TABLE_ARCHIVED_MONTHS = "SpendMate_archived_months";
+
+    // Connection pool settings (override with -Dspendmate.pool.*)
+    private static final int POOL_MIN_SIZE = Integer.getInteger("spendmate.pool.minSize", 1);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("spendmate.pool.maxSize", 8);
+    private static final long POOL_MAX_WAIT_MS = Long.getLong("spendmate.pool.maxWaitMs", 10_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("spendmate.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_VALIDATE_AFTER_MS = Long.getLong("spendmate.pool.validateAfterMs", 5_000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("spendmate.pool.statementCacheSize", 32);
+
+    // JDBC on the Swing EDT freezes the window: "warn" (default) logs it, "fail" throws, "off" ignores
+    private static final String EDT_CHECK = System.getProperty("spendmate.debug.edtCheck", "warn");
+
+    private static volatile ConnectionPool pool;
     
-    // Static initializer to create database schema on first load
-    static {
-        initializeDatabase();
+    /**
+     * Get a connection to the configured database from the shared pool.
+     * Closing the returned connection hands it back to the pool.
+     * 
+     * @return A pooled database connection
+     * @throws SQLException if no connection becomes available in time or connecting fails
+     * @throws IllegalStateException if called on the Swing EDT with -Dspendmate.debug.edtCheck=fail
+     */
+    public static Connection getConnection() throws SQLException {
+        checkNotOnEdt();
+        SchemaManager.awaitReady();
+        return getPool().borrow();
     }
 
     /**
-     * Initialize the database schema and create required tables with indexes.
-     * This method is called automatically when the class is loaded.
+     * Borrow a connection without waiting for schema bootstrap.
+     * Only {@link SchemaManager} uses this.
      */
-    private static void initializeDatabase() {
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // Create transactions table with proper constraints (MySQL syntax)
-            String sqlTx = "CREATE TABLE IF NOT EXISTS " + TABLE_TRANSACTIONS + " (" +
-                    "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
-                    "`type` VARCHAR(10) NOT NULL, " +
-                    "`date` VARCHAR(10) NOT NULL, " +
-                    "`category` VARCHAR(50) NOT NULL, " +
-                    "`amount` INT NOT NULL, " +
-                    "`memo` VARCHAR(255), " +
-                    "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
-
-            // Create budgets table with unique constraint on year_month (MySQL syntax)
-            String sqlBudget = "CREATE TABLE IF NOT EXISTS " + TABLE_BUDGETS + " (" +
-                    "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
-                    "`year_month` VARCHAR(7) NOT NULL UNIQUE, " +
-                    "`limit_amt` INT NOT NULL, " +
-                    "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
-
-            stmt.execute(sqlTx);
-            stmt.execute(sqlBudget);
-
-            // Create users table for authentication
-            String sqlUsers = "CREATE TABLE IF NOT EXISTS " + TABLE_USERS + " (" +
-                    "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
-                    "`username` VARCHAR(50) NOT NULL UNIQUE, " +
-                    "`password` VARCHAR(64) NOT NULL, " +
-                    "`email` VARCHAR(100) NOT NULL UNIQUE, " +
-                    "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
-            stmt.execute(sqlUsers);
-
-            // Create indexes for faster queries
-            String idxTypeDate = "CREATE INDEX idx_spendmate_tx_type_date ON " + TABLE_TRANSACTIONS + "(`type`, `date`)";
-            String idxCategory = "CREATE INDEX idx_spendmate_tx_category ON " + TABLE_TRANSACTIONS + "(`category`)";
-            String idxDate = "CREATE INDEX idx_spendmate_tx_date ON " + TABLE_TRANSACTIONS + "(`date`)";
-            
-            // MySQL에서 인덱스가 이미 존재하면 예외 발생하므로 개별 처리
-            try { stmt.execute(idxTypeDate); } catch (SQLException ignored) {}
-            try { stmt.execute(idxCategory); } catch (SQLException ignored) {}
-            try { stmt.execute(idxDate); } catch (SQLException ignored) {}
-
-            System.out.println("MySQL Database initialized successfully!");
-            System.out.println("Server: " + HOST + ":" + PORT + "/" + DATABASE);
-            System.out.println("Tables: " + TABLE_TRANSACTIONS + ", " + TABLE_BUDGETS + ", " + TABLE_USERS);
+    static Connection borrowForBootstrap() throws SQLException {
+        return getPool().borrow();
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error initializing database: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to initialize database", e);
+    private static void checkNotOnEdt() {
+        if ("off".equalsIgnoreCase(EDT_CHECK) || !EventQueue.isDispatchThread()) {
+            return;
+        }
+        IllegalStateException e = new IllegalStateException("Database access on the Event Dispatch Thread");
+        if ("fail".equalsIgnoreCase(EDT_CHECK)) {
+            throw e;
         }
+        System.err.println("WARNING: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DBConnection.class) {
+                p = pool;
+                if (p == null) {
+                    loadDriver(BACKEND);
+                    p = new ConnectionPool(urlOf(BACKEND), userOf(BACKEND), passwordOf(BACKEND),
+                            POOL_MIN_SIZE, POOL_MAX_SIZE,
+                            POOL_MAX_WAIT_MS, POOL_IDLE_TIMEOUT_MS, POOL_VALIDATE_AFTER_MS,
+                            STATEMENT_CACHE_SIZE);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static void loadDriver(Backend backend) throws SQLException {
+        try {
+            Class.forName(backend.driverClass);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(backend + " JDBC driver not found: " + backend.driverClass, e);
+        }
+    }
+
+    private static String urlOf(Backend backend) {
+        return backend == Backend.EMBEDDED ? EMBEDDED_URL : URL;
+    }
+
+    private static String userOf(Backend backend) {
+        return backend == Backend.EMBEDDED ? "sa" : USER;
+    }
+
+    private static String passwordOf(Backend backend) {
+        return backend == Backend.EMBEDDED ? "" : PASSWORD;
     }
 
     /**
-     * Get a connection to the MySQL database.
+     * Open a standalone (non-pooled) connection to a specific backend.
+     * Used by maintenance tools such as the MySQL to embedded migration.
      * 
-     * @return A new database connection
-     * @throws SQLException if connection fails
+     * @param backend The backend to connect to
+     * @return A new connection; the caller must close it
+     * @throws SQLException if the driver is missing or connecting fails
      */
-    public static Connection getConnection() throws SQLException {
-        try {
-            // Ensure MySQL JDBC driver is loaded
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC driver not found", e);
+    public static Connection openDirect(Backend backend) throws SQLException {
+        loadDriver(backend);
+        return DriverManager.getConnection(urlOf(backend), userOf(backend), passwordOf(backend));
+    }
+
+    /**
+     * Get the backend selected at startup.
+     * 
+     * @return The configured backend
+     */
+    public static Backend getBackend() {
+        return BACKEND;
+    }
+
+    /**
+     * Get a snapshot of the connection pool statistics
+     * (active, idle, waiters, borrow latency, statement cache hits/misses).
+     * 
+     * @return Pool statistics, or null if the pool has not been created yet
+     */
+    public static PoolStats getPoolStats() {
+        ConnectionPool p = pool;
+        return p != null ? p.getStats() : null;
+    }
+
+    /**
+     * Close all pooled connections. The next {@link #getConnection()} call
+     * creates a fresh pool.
+     */
+    public static void shutdownPool() {
+        synchronized (DBConnection.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
         }
-        return DriverManager.getConnection(URL, USER, PASSWORD);
     }
 
     /**
@@ -134,7 +216,7 @@ public class DBConnection {
      * @return The database name
      */
     public static String getDatabaseName() {
-        return DATABASE;
+        return BACKEND == Backend.EMBEDDED ? EMBEDDED_FILE : DATABASE;
     }
     
     /**
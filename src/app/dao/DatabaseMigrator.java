@@ -0,0 +1,164 @@
+package app.dao;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk copy of the SpendMate tables from one database to another, for example
+ * from the remote MySQL server into the embedded file database.
+ *
+ * Columns are matched by name between source and target, ids are preserved,
+ * and rows are written with JDBC batches inside a single target transaction.
+ * Existing rows in the target tables are replaced.
+ *
+ * The archive registry and the rollups are copied too: archived months only
+ * exist there (their rows are in the archive files, which the target reads
+ * from the same {@code spendmate.archive.dir}), and rebuilding the rollups
+ * from the copied rows keeps an archived month's rollup rows.
+ */
+public class DatabaseMigrator {
+
+    // Copy order respects logical dependencies (users first)
+    private static final String[] TABLES = {
+            DBConnection.TABLE_USERS,
+            DBConnection.TABLE_BUDGETS,
+            DBConnection.TABLE_TRANSACTIONS,
+            DBConnection.TABLE_ARCHIVED_MONTHS,
+            DBConnection.TABLE_DAILY_TOTALS,
+            DBConnection.TABLE_MONTHLY_TOTALS
+    };
+
+    private final int batchSize;
+
+    public DatabaseMigrator(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Copy every SpendMate table from source to target.
+     * The target schema must already exist (see {@link SchemaManager#ensureSchema(Connection)}).
+     *
+     * @return Total number of rows copied
+     * @throws SQLException if reading or writing fails; the target is rolled back
+     */
+    public long copyAll(Connection source, Connection target) throws SQLException {
+        boolean autoCommit = target.getAutoCommit();
+        target.setAutoCommit(false);
+        long total = 0;
+        try {
+            for (String table : TABLES) {
+                long rows = copyTable(source, target, table);
+                System.out.println("Copied " + rows + " rows from " + table);
+                total += rows;
+            }
+            target.commit();
+        } catch (SQLException e) {
+            target.rollback();
+            throw e;
+        } finally {
+            target.setAutoCommit(autoCommit);
+        }
+        for (String table : TABLES) {
+            if (columnsOf(target, table).contains("id")) {
+                resetAutoIncrement(target, table);
+            }
+        }
+        return total;
+    }
+
+    private long copyTable(Connection source, Connection target, String table) throws SQLException {
+        List<String> targetColumns = columnsOf(target, table);
+
+        try (Statement read = source.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            read.setFetchSize(batchSize);
+            try (ResultSet rs = read.executeQuery("SELECT * FROM " + table)) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<Integer> sourceIndexes = new ArrayList<>();
+                List<String> columns = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    String name = meta.getColumnLabel(i);
+                    if (targetColumns.contains(name.toLowerCase(Locale.ROOT))) {
+                        sourceIndexes.add(i);
+                        columns.add(name);
+                    }
+                }
+
+                try (Statement clear = target.createStatement()) {
+                    clear.executeUpdate("DELETE FROM " + table);
+                }
+
+                StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+                StringBuilder marks = new StringBuilder();
+                for (int i = 0; i < columns.size(); i++) {
+                    sql.append(i > 0 ? ", " : "").append('`').append(columns.get(i)).append('`');
+                    marks.append(i > 0 ? ", ?" : "?");
+                }
+                sql.append(") VALUES (").append(marks).append(')');
+
+                long rows = 0;
+                try (PreparedStatement write = target.prepareStatement(sql.toString())) {
+                    while (rs.next()) {
+                        for (int i = 0; i < sourceIndexes.size(); i++) {
+                            write.setObject(i + 1, rs.getObject(sourceIndexes.get(i)));
+                        }
+                        write.addBatch();
+                        if (++rows % batchSize == 0) {
+                            write.executeBatch();
+                        }
+                    }
+                    if (rows % batchSize != 0) {
+                        write.executeBatch();
+                    }
+                }
+                return rows;
+            }
+        }
+    }
+
+    private static List<String> columnsOf(Connection conn, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        for (String name : new String[]{table, table.toLowerCase(Locale.ROOT), table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, name, null)) {
+                while (rs.next()) {
+                    columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            if (!columns.isEmpty()) {
+                break;
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new SQLException("Target table not found: " + table);
+        }
+        return columns;
+    }
+
+    /**
+     * Continue generated ids after the highest copied id.
+     */
+    private static void resetAutoIncrement(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(`id`), 0) + 1 FROM " + table)) {
+            if (rs.next()) {
+                long next = rs.getLong(1);
+                try (Statement alter = conn.createStatement()) {
+                    alter.execute("ALTER TABLE " + table + " ALTER COLUMN `id` RESTART WITH " + next);
+                } catch (SQLException e) {
+                    // MySQL syntax
+                    try (Statement alter = conn.createStatement()) {
+                        alter.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + next);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package app.dao;
+
+import app.model.Budget;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory budget storage keyed by user id and "YYYY-MM".
+ */
+public class InMemoryBudgetStore implements BudgetStore {
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    // "<userId>|YYYY-MM" -> budget
+    private final ConcurrentMap<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    private static String key(String yearMonth) {
+        return UserContext.requireUserId() + "|" + yearMonth;
+    }
+
+    @Override
+    public Budget findByYearMonth(String yearMonth) {
+        Budget b = budgets.get(key(yearMonth));
+        return b != null ? new Budget(b.getId(), b.getYearMonth(), b.getLimitAmt()) : null;
+    }
+
+    @Override
+    public void upsert(Budget b) {
+        budgets.compute(key(b.getYearMonth()), (k, existing) -> new Budget(
+                existing != null ? existing.getId() : nextId.getAndIncrement(), b.getYearMonth(), b.getLimitAmt()));
+    }
+
+    @Override
+    public void upsertAll(Collection<Budget> budgets) {
+        for (Budget b : budgets) {
+            upsert(b);
+        }
+    }
+}
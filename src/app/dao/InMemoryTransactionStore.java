@@ -0,0 +1,425 @@
+package app.dao;
+
+import app.model.CategoryBreakdown;
+import app.model.DailyCategoryTotal;
+import app.model.Transaction;
+import app.model.TransactionPage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory transaction engine. Used as a fast local mode (no database server)
+ * and as the baseline for benchmarks.
+ *
+ * Rows are partitioned by user ({@link UserContext}) and indexed by date and
+ * by (type, date) within a partition, so period, month and day queries are
+ * range lookups over the logged-in user's rows only. A read/write lock keeps
+ * the indexes consistent; readers run concurrently.
+ */
+public class InMemoryTransactionStore implements TransactionStore {
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** One user's rows and indexes. */
+    private static final class Partition {
+        private final Map<Integer, Transaction> byId = new HashMap<>();
+        // date -> (id -> transaction), ids ascending within a day
+        private final NavigableMap<String, NavigableMap<Integer, Transaction>> byDate = new TreeMap<>();
+        // type -> date -> (id -> transaction)
+        private final Map<String, NavigableMap<String, NavigableMap<Integer, Transaction>>> byTypeDate = new HashMap<>();
+        // client key -> id, for rows stored with one
+        private final Map<String, Integer> byClientKey = new HashMap<>();
+    }
+
+    private static final Partition EMPTY = new Partition();
+
+    // user id -> partition
+    private final Map<Integer, Partition> partitions = new HashMap<>();
+
+    // Call with the read or write lock held; never modify the result of a read
+    private Partition partition() {
+        return partitions.getOrDefault(UserContext.requireUserId(), EMPTY);
+    }
+
+    // Call with the write lock held
+    private Partition writablePartition() {
+        return partitions.computeIfAbsent(UserContext.requireUserId(), id -> new Partition());
+    }
+
+    @Override
+    public void insert(Transaction t) {
+        Transaction row = copy(t);
+        lock.writeLock().lock();
+        try {
+            Partition p = writablePartition();
+            row.setId(nextId.getAndIncrement());
+            p.byId.put(row.getId(), row);
+            p.byDate.computeIfAbsent(row.getDate(), d -> new TreeMap<>()).put(row.getId(), row);
+            if (row.getClientKey() != null) {
+                p.byClientKey.put(row.getClientKey(), row.getId());
+            }
+            p.byTypeDate.computeIfAbsent(row.getType(), k -> new TreeMap<>())
+                    .computeIfAbsent(row.getDate(), d -> new TreeMap<>())
+                    .put(row.getId(), row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        t.setId(row.getId());
+    }
+
+    @Override
+    public List<Integer> insertAll(Collection<Transaction> transactions) {
+        List<Integer> ids = new ArrayList<>(transactions.size());
+        lock.writeLock().lock();
+        try {
+            for (Transaction t : transactions) {
+                insert(t);
+                ids.add(t.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return ids;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        lock.writeLock().lock();
+        try {
+            Partition p = partition();
+            return remove(p, p.byId.get(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Transaction findById(int id) {
+        lock.readLock().lock();
+        try {
+            Transaction t = partition().byId.get(id);
+            return t != null ? copy(t) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> findIdsByClientKeys(Collection<String> clientKeys) {
+        Map<String, Integer> ids = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Partition p = partition();
+            for (String key : clientKeys) {
+                Integer id = p.byClientKey.get(key);
+                if (id != null) {
+                    ids.put(key, id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    @Override
+    public void deleteTransaction(String date, String category, int amount) {
+        lock.writeLock().lock();
+        try {
+            Partition p = partition();
+            NavigableMap<Integer, Transaction> day = p.byDate.get(date);
+            if (day == null) {
+                return;
+            }
+            for (Transaction t : day.values()) {
+                if (t.getCategory().equals(category) && t.getAmount() == amount) {
+                    remove(p, t);
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean remove(Partition p, Transaction t) {
+        if (t == null) {
+            return false;
+        }
+        p.byId.remove(t.getId());
+        if (t.getClientKey() != null) {
+            p.byClientKey.remove(t.getClientKey());
+        }
+        removeFromDay(p.byDate, t);
+        NavigableMap<String, NavigableMap<Integer, Transaction>> typeIndex = p.byTypeDate.get(t.getType());
+        if (typeIndex != null) {
+            removeFromDay(typeIndex, t);
+        }
+        return true;
+    }
+
+    private static void removeFromDay(NavigableMap<String, NavigableMap<Integer, Transaction>> index, Transaction t) {
+        NavigableMap<Integer, Transaction> day = index.get(t.getDate());
+        if (day != null) {
+            day.remove(t.getId());
+            if (day.isEmpty()) {
+                index.remove(t.getDate());
+            }
+        }
+    }
+
+    @Override
+    public List<Transaction> findByPeriod(String fromDate, String toDate) {
+        lock.readLock().lock();
+        try {
+            return copyAll(partition().byDate.subMap(fromDate, true, toDate, true).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Stream<Transaction> streamByPeriod(String fromDate, String toDate) {
+        // Copy one day at a time so a long scan never duplicates the whole range
+        List<String> dates;
+        lock.readLock().lock();
+        try {
+            dates = new ArrayList<>(partition().byDate.subMap(fromDate, true, toDate, true).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return dates.stream().flatMap(date -> getDetailsOfDay(date).stream());
+    }
+
+    @Override
+    public void forEachInPeriod(String fromDate, String toDate, Consumer<Transaction> action) {
+        try (Stream<Transaction> rows = streamByPeriod(fromDate, toDate)) {
+            rows.forEach(action);
+        }
+    }
+
+    @Override
+    public TransactionPage findPageByPeriod(String fromDate, String toDate, int pageSize, String pageToken) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        String startDate = fromDate;
+        int afterId = Integer.MIN_VALUE;
+        if (pageToken != null) {
+            TransactionPage.Key key = TransactionPage.parseToken(pageToken);
+            if (key.getDate().toString().compareTo(startDate) >= 0) {
+                startDate = key.getDate().toString();
+                afterId = key.getId();
+            }
+        }
+        List<Transaction> list = new ArrayList<>(pageSize);
+        boolean more = false;
+        lock.readLock().lock();
+        try {
+            outer:
+            for (Map.Entry<String, NavigableMap<Integer, Transaction>> day
+                    : partition().byDate.subMap(startDate, true, toDate, true).entrySet()) {
+                Collection<Transaction> rows = day.getKey().equals(startDate)
+                        ? day.getValue().tailMap(afterId, false).values()
+                        : day.getValue().values();
+                for (Transaction t : rows) {
+                    if (list.size() == pageSize) {
+                        more = true;
+                        break outer;
+                    }
+                    list.add(copy(t));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        String next = more ? TransactionPage.tokenAfter(list.get(list.size() - 1)) : null;
+        return new TransactionPage(list, next);
+    }
+
+    @Override
+    public String findPageTokenAt(String fromDate, String toDate, int offset) {
+        if (offset <= 0) {
+            return null;
+        }
+        int skip = offset - 1;
+        lock.readLock().lock();
+        try {
+            for (NavigableMap<Integer, Transaction> day : partition().byDate.subMap(fromDate, true, toDate, true).values()) {
+                if (skip >= day.size()) {
+                    skip -= day.size(); // whole day before the target row
+                    continue;
+                }
+                for (Transaction t : day.values()) {
+                    if (skip-- == 0) {
+                        return TransactionPage.tokenAfter(t);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByPeriod(String fromDate, String toDate) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (NavigableMap<Integer, Transaction> day : partition().byDate.subMap(fromDate, true, toDate, true).values()) {
+                count += day.size();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTotalByType(String type, String fromDate, String toDate) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, NavigableMap<Integer, Transaction>> typeIndex = partition().byTypeDate.get(type);
+            if (typeIndex == null) {
+                return 0;
+            }
+            return sum(typeIndex.subMap(fromDate, true, toDate, true).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTotalIncomeOfMonth(String yearMonth) {
+        return getTotalByType("income", monthStart(yearMonth), monthEnd(yearMonth));
+    }
+
+    @Override
+    public int getTotalExpenseOfMonth(String yearMonth) {
+        return getTotalByType("expense", monthStart(yearMonth), monthEnd(yearMonth));
+    }
+
+    @Override
+    public int getTotalExpenseOfDay(String date) {
+        return getTotalByType("expense", date, date);
+    }
+
+    @Override
+    public CategoryBreakdown getCategoryBreakdown(String fromMonth, String toMonth, String type) {
+        Map<String, Map<String, Integer>> cells = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, NavigableMap<Integer, Transaction>> typeIndex = partition().byTypeDate.get(type);
+            if (typeIndex != null) {
+                for (NavigableMap<Integer, Transaction> day
+                        : typeIndex.subMap(monthStart(fromMonth), true, monthEnd(toMonth), true).values()) {
+                    for (Transaction t : day.values()) {
+                        cells.computeIfAbsent(t.getDate().substring(0, 7), m -> new HashMap<>())
+                                .merge(t.getCategory(), t.getAmount(), Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new CategoryBreakdown(type, fromMonth, toMonth, cells);
+    }
+
+    @Override
+    public List<DailyCategoryTotal> getDailyCategoryTotals(String fromDate, String toDate) {
+        List<DailyCategoryTotal> list = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (NavigableMap<Integer, Transaction> day : partition().byDate.subMap(fromDate, true, toDate, true).values()) {
+                Map<String, Integer> groups = new TreeMap<>();
+                LocalDate date = null;
+                for (Transaction t : day.values()) {
+                    date = t.getLocalDate();
+                    groups.merge(t.getType() + "|" + t.getCategory(), t.getAmount(), Integer::sum);
+                }
+                for (Map.Entry<String, Integer> g : groups.entrySet()) {
+                    int sep = g.getKey().indexOf('|');
+                    list.add(new DailyCategoryTotal(date, g.getKey().substring(0, sep),
+                            g.getKey().substring(sep + 1), g.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list;
+    }
+
+    @Override
+    public List<Transaction> getDetailsOfDay(String date) {
+        return findByPeriod(date, date);
+    }
+
+    @Override
+    public List<Transaction> getDetailsOfMonth(String yearMonth) {
+        return findByPeriod(monthStart(yearMonth), monthEnd(yearMonth));
+    }
+
+    /**
+     * @return Number of transactions currently stored, across all users
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (Partition p : partitions.values()) {
+                size += p.byId.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // "YYYY-MM-00" / "YYYY-MM-99" bracket every day of the month in string order
+    private static String monthStart(String yearMonth) {
+        return yearMonth + "-00";
+    }
+
+    private static String monthEnd(String yearMonth) {
+        return yearMonth + "-99";
+    }
+
+    private static int sum(Collection<NavigableMap<Integer, Transaction>> days) {
+        int total = 0;
+        for (NavigableMap<Integer, Transaction> day : days) {
+            for (Transaction t : day.values()) {
+                total += t.getAmount();
+            }
+        }
+        return total;
+    }
+
+    private static List<Transaction> copyAll(Collection<NavigableMap<Integer, Transaction>> days) {
+        List<Transaction> list = new ArrayList<>();
+        for (NavigableMap<Integer, Transaction> day : days) {
+            for (Transaction t : day.values()) {
+                list.add(copy(t));
+            }
+        }
+        return list;
+    }
+
+    private static Transaction copy(Transaction t) {
+        Transaction c = new Transaction(t.getId(), t.getType(), t.getLocalDate(), t.getCategory(), t.getAmount(), t.getMemo());
+        c.setClientKey(t.getClientKey());
+        return c;
+    }
+}
@@ -0,0 +1,61 @@
+package app.dao;
+
+import app.model.User;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory user storage. Passwords are hashed the same way as {@link UserDAO}.
+ */
+public class InMemoryUserStore implements UserStore {
+
+    private final Map<Integer, User> byId = new ConcurrentHashMap<>();
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, User> byEmail = new ConcurrentHashMap<>();
+    private int nextId = 1;
+
+    @Override
+    public synchronized boolean registerUser(User user) {
+        if (byUsername.containsKey(user.getUsername()) || byEmail.containsKey(user.getEmail())) {
+            return false;
+        }
+        User stored = new User(nextId++, user.getUsername(), UserDAO.hashPassword(user.getPassword()),
+                user.getEmail(), LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        byId.put(stored.getId(), stored);
+        byUsername.put(stored.getUsername(), stored);
+        byEmail.put(stored.getEmail(), stored);
+        user.setId(stored.getId());
+        return true;
+    }
+
+    @Override
+    public User authenticate(String username, String password) {
+        User u = byUsername.get(username);
+        if (u != null && u.getPassword().equals(UserDAO.hashPassword(password))) {
+            return copy(u);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        return byUsername.containsKey(username);
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        return byEmail.containsKey(email);
+    }
+
+    @Override
+    public User getUserById(int id) {
+        User u = byId.get(id);
+        return u != null ? copy(u) : null;
+    }
+
+    private static User copy(User u) {
+        return new User(u.getId(), u.getUsername(), u.getPassword(), u.getEmail(), u.getCreatedAt());
+    }
+}
@@ -0,0 +1,73 @@
+package app.dao;
+
+import app.model.Budget;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Budget store of an {@link OfflineJournal}: upserts go to the database, or
+ * to the journal while it is unreachable or older changes are pending; a
+ * month's pending budget is returned without asking the database, other
+ * months come from the journal's {@link ReadSnapshot} while it is unreachable.
+ */
+final class JournaledBudgetStore implements BudgetStore {
+
+    private final OfflineJournal journal;
+    private final BudgetStore store;
+
+    JournaledBudgetStore(OfflineJournal journal, BudgetStore store) {
+        this.journal = journal;
+        this.store = store;
+    }
+
+    @Override
+    public Budget findByYearMonth(String yearMonth) throws SQLException {
+        int userId = UserContext.requireUserId();
+        Budget budget = journal.view(userId).budgets.get(yearMonth);
+        if (budget == null) {
+            budget = journal.snapshot().read(userId, "budget|" + yearMonth, () -> store.findByYearMonth(yearMonth), null);
+        }
+        // A copy, so callers cannot change the journaled or snapshot budget
+        return budget != null ? new Budget(budget.getId(), budget.getYearMonth(), budget.getLimitAmt()) : null;
+    }
+
+    @Override
+    public void upsert(Budget b) throws SQLException {
+        int userId = UserContext.requireUserId();
+        if (!journal.hasPending()) {
+            try {
+                store.upsert(b);
+                journal.snapshot().invalidate(userId);
+                return;
+            } catch (SQLException e) {
+                if (!OfflineJournal.isConnectionFailure(e)) {
+                    throw e;
+                }
+            }
+        }
+        journal.append(List.of(MutationJournal.Entry.budget(userId, new Budget(b.getYearMonth(), b.getLimitAmt()))));
+    }
+
+    @Override
+    public void upsertAll(Collection<Budget> budgets) throws SQLException {
+        int userId = UserContext.requireUserId();
+        if (!journal.hasPending()) {
+            try {
+                store.upsertAll(budgets);
+                journal.snapshot().invalidate(userId);
+                return;
+            } catch (SQLException e) {
+                if (!OfflineJournal.isConnectionFailure(e)) {
+                    throw e;
+                }
+            }
+        }
+        List<MutationJournal.Entry> entries = new ArrayList<>(budgets.size());
+        for (Budget b : budgets) {
+            entries.add(MutationJournal.Entry.budget(userId, new Budget(b.getYearMonth(), b.getLimitAmt())));
+        }
+        journal.append(entries);
+    }
+}
@@ -0,0 +1,482 @@
+package app.dao;
+
+import app.model.CategoryBreakdown;
+import app.model.DailyCategoryTotal;
+import app.model.Transaction;
+import app.model.TransactionPage;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Transaction store of an {@link OfflineJournal}: writes go to the database,
+ * or to the journal while it is unreachable or older changes are pending;
+ * reads merge the logged-in user's pending changes into the stored rows,
+ * which come from the journal's {@link ReadSnapshot} while the database is
+ * unreachable.
+ *
+ * Listings keep journaled rows in date order after the stored rows of the
+ * same day; streams, visits and paged listings return them after the stored
+ * rows (on the last page). Totals leave out a deleted row only when its values
+ * were known when the delete was journaled. Client key lookups always need
+ * the database.
+ */
+final class JournaledTransactionStore implements TransactionStore {
+
+    private final OfflineJournal journal;
+    private final TransactionStore store;
+
+    JournaledTransactionStore(OfflineJournal journal, TransactionStore store) {
+        this.journal = journal;
+        this.store = store;
+    }
+
+    @Override
+    public void insert(Transaction t) throws SQLException {
+        int userId = UserContext.requireUserId();
+        assignClientKey(t);
+        if (!journal.hasPending()) {
+            try {
+                store.insert(t);
+                stored(userId);
+                return;
+            } catch (SQLException e) {
+                if (!OfflineJournal.isConnectionFailure(e)) {
+                    throw e;
+                }
+            }
+        }
+        journal.append(List.of(MutationJournal.Entry.insert(userId, t)));
+    }
+
+    @Override
+    public List<Integer> insertAll(Collection<Transaction> transactions) throws SQLException {
+        int userId = UserContext.requireUserId();
+        for (Transaction t : transactions) {
+            assignClientKey(t);
+        }
+        if (!journal.hasPending()) {
+            try {
+                List<Integer> ids = store.insertAll(transactions);
+                stored(userId);
+                return ids;
+            } catch (SQLException e) {
+                if (!OfflineJournal.isConnectionFailure(e)) {
+                    throw e;
+                }
+            }
+        }
+        List<MutationJournal.Entry> entries = new ArrayList<>(transactions.size());
+        for (Transaction t : transactions) {
+            entries.add(MutationJournal.Entry.insert(userId, t));
+        }
+        journal.append(entries);
+        List<Integer> ids = new ArrayList<>(transactions.size());
+        for (Transaction t : transactions) {
+            ids.add(t.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * A transaction that fails with a lost connection may still have been
+     * stored; the key lets the replay find it.
+     */
+    private static void assignClientKey(Transaction t) {
+        if (t.getClientKey() == null) {
+            t.setClientKey(OfflineJournal.newClientKey());
+        }
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        int userId = UserContext.requireUserId();
+        if (id < 0) {
+            int stored = journal.storedId(id);
+            if (stored == 0) {
+                return journal.deleteJournaled(userId, id);
+            }
+            id = stored;
+        }
+        if (!journal.hasPending()) {
+            try {
+                boolean deleted = store.delete(id);
+                stored(userId);
+                return deleted;
+            } catch (SQLException e) {
+                if (!OfflineJournal.isConnectionFailure(e)) {
+                    throw e;
+                }
+            }
+        } else if (journal.view(userId).deletedIds.contains(id)) {
+            return false;
+        }
+        Transaction row = null;
+        try {
+            row = store.findById(id);
+            if (row == null) {
+                return false;
+            }
+        } catch (SQLException e) {
+            if (!OfflineJournal.isConnectionFailure(e)) {
+                throw e;
+            }
+            // Unknown while offline; the delete is journaled without the row's values
+        }
+        journal.append(List.of(MutationJournal.Entry.delete(userId, id, null, row)));
+        return true;
+    }
+
+    @Override
+    public Transaction findById(int id) throws SQLException {
+        OfflineJournal.View pending = view();
+        if (id < 0) {
+            int stored = journal.storedId(id);
+            if (stored == 0) {
+                for (Transaction t : pending.inserted) {
+                    if (t.getId() == id) {
+                        return t;
+                    }
+                }
+                return null;
+            }
+            id = stored;
+        }
+        if (pending.deletedIds.contains(id)) {
+            return null;
+        }
+        int storedId = id;
+        return read("findById|" + id, () -> store.findById(storedId), null);
+    }
+
+    @Override
+    public Map<String, Integer> findIdsByClientKeys(Collection<String> clientKeys) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>(store.findIdsByClientKeys(clientKeys));
+        Set<String> wanted = new HashSet<>(clientKeys);
+        for (Transaction t : view().inserted) {
+            if (wanted.contains(t.getClientKey())) {
+                ids.putIfAbsent(t.getClientKey(), t.getId());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Transaction> findByPeriod(String fromDate, String toDate) throws SQLException {
+        OfflineJournal.View pending = view();
+        return merge(read(periodKey(fromDate, toDate, TransactionProjection.DETAIL),
+                () -> store.findByPeriod(fromDate, toDate), List.of()), pending, fromDate, toDate);
+    }
+
+    @Override
+    public List<Transaction> findByPeriod(String fromDate, String toDate, TransactionProjection projection) throws SQLException {
+        OfflineJournal.View pending = view();
+        return merge(read(periodKey(fromDate, toDate, projection),
+                () -> store.findByPeriod(fromDate, toDate, projection), List.of()), pending, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<Transaction> streamByPeriod(String fromDate, String toDate) throws SQLException {
+        OfflineJournal.View pending = view();
+        return streamByPeriod(fromDate, toDate, TransactionProjection.DETAIL);
+    }
+
+    @Override
+    public Stream<Transaction> streamByPeriod(String fromDate, String toDate, TransactionProjection projection) throws SQLException {
+        OfflineJournal.View pending = view();
+        Stream<Transaction> stored;
+        try {
+            stored = projection == TransactionProjection.DETAIL
+                    ? store.streamByPeriod(fromDate, toDate) : store.streamByPeriod(fromDate, toDate, projection);
+        } catch (SQLException e) {
+            stored = offlineRows(e, fromDate, toDate, projection).stream();
+        }
+        return merge(stored, pending, fromDate, toDate);
+    }
+
+    @Override
+    public void forEachInPeriod(String fromDate, String toDate, Consumer<Transaction> action) throws SQLException {
+        OfflineJournal.View pending = view();
+        Consumer<Transaction> storedAction = t -> {
+            if (!pending.deletedIds.contains(t.getId())) {
+                action.accept(t);
+            }
+        };
+        try {
+            store.forEachInPeriod(fromDate, toDate, storedAction);
+        } catch (SQLException e) {
+            // Only a failure to connect gets here before the first row is visited
+            offlineRows(e, fromDate, toDate, TransactionProjection.DETAIL).forEach(storedAction);
+        }
+        inserted(pending, fromDate, toDate).forEach(action);
+    }
+
+    @Override
+    public TransactionPage findPageByPeriod(String fromDate, String toDate, int pageSize, String pageToken) throws SQLException {
+        OfflineJournal.View pending = view();
+        TransactionPage page = read("page|" + fromDate + "|" + toDate + "|" + pageSize + "|" + pageToken,
+                () -> store.findPageByPeriod(fromDate, toDate, pageSize, pageToken), new TransactionPage(List.of(), null));
+        if (pending.isEmpty()) {
+            return page;
+        }
+        List<Transaction> items = new ArrayList<>(page.getItems().size());
+        for (Transaction t : page.getItems()) {
+            if (!pending.deletedIds.contains(t.getId())) {
+                items.add(t);
+            }
+        }
+        if (!page.hasNext()) {
+            items.addAll(inserted(pending, fromDate, toDate));
+        }
+        return new TransactionPage(items, page.getNextToken());
+    }
+
+    @Override
+    public String findPageTokenAt(String fromDate, String toDate, int offset) throws SQLException {
+        // Journaled rows are listed on the last page only, so positions refer to stored rows
+        return read("pageTokenAt|" + fromDate + "|" + toDate + "|" + offset,
+                () -> store.findPageTokenAt(fromDate, toDate, offset), null);
+    }
+
+    @Override
+    public int countByPeriod(String fromDate, String toDate) throws SQLException {
+        OfflineJournal.View pending = view();
+        int count = read("count|" + fromDate + "|" + toDate, () -> store.countByPeriod(fromDate, toDate), 0)
+                + inserted(pending, fromDate, toDate).size();
+        for (Transaction t : pending.deletedRows) {
+            if (inRange(t, fromDate, toDate)) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getTotalByType(String type, String fromDate, String toDate) throws SQLException {
+        OfflineJournal.View pending = view();
+        return read("totalByType|" + type + "|" + fromDate + "|" + toDate,
+                () -> store.getTotalByType(type, fromDate, toDate), 0) + delta(pending, type, fromDate, toDate);
+    }
+
+    @Override
+    public int getTotalIncomeOfMonth(String yearMonth) throws SQLException {
+        OfflineJournal.View pending = view();
+        YearMonth ym = YearMonth.parse(yearMonth);
+        return read("monthIncome|" + yearMonth, () -> store.getTotalIncomeOfMonth(yearMonth), 0)
+                + delta(pending, "income", ym.atDay(1).toString(), ym.atEndOfMonth().toString());
+    }
+
+    @Override
+    public int getTotalExpenseOfMonth(String yearMonth) throws SQLException {
+        OfflineJournal.View pending = view();
+        YearMonth ym = YearMonth.parse(yearMonth);
+        return read("monthExpense|" + yearMonth, () -> store.getTotalExpenseOfMonth(yearMonth), 0)
+                + delta(pending, "expense", ym.atDay(1).toString(), ym.atEndOfMonth().toString());
+    }
+
+    @Override
+    public int getTotalExpenseOfDay(String date) throws SQLException {
+        OfflineJournal.View pending = view();
+        return read("dayExpense|" + date, () -> store.getTotalExpenseOfDay(date), 0)
+                + delta(pending, "expense", date, date);
+    }
+
+    @Override
+    public List<Transaction> getDetailsOfDay(String date) throws SQLException {
+        OfflineJournal.View pending = view();
+        return merge(read("day|" + date, () -> store.getDetailsOfDay(date), List.of()), pending, date, date);
+    }
+
+    @Override
+    public List<DailyCategoryTotal> getDailyCategoryTotals(String fromDate, String toDate) throws SQLException {
+        OfflineJournal.View pending = view();
+        List<DailyCategoryTotal> stored = read("dailyTotals|" + fromDate + "|" + toDate,
+                () -> store.getDailyCategoryTotals(fromDate, toDate), List.of());
+        if (pending.isEmpty()) {
+            return new ArrayList<>(stored);
+        }
+        // date -> "type|category" -> amount
+        TreeMap<LocalDate, Map<String, Integer>> groups = new TreeMap<>();
+        for (DailyCategoryTotal row : stored) {
+            groups.computeIfAbsent(row.getDate(), d -> new LinkedHashMap<>())
+                    .merge(row.getType() + "|" + row.getCategory(), row.getAmount(), Integer::sum);
+        }
+        for (Transaction t : inserted(pending, fromDate, toDate)) {
+            groups.computeIfAbsent(t.getLocalDate(), d -> new LinkedHashMap<>())
+                    .merge(t.getType() + "|" + t.getCategory(), t.getAmount(), Integer::sum);
+        }
+        for (Transaction t : pending.deletedRows) {
+            Map<String, Integer> day = groups.get(t.getLocalDate());
+            if (day != null && inRange(t, fromDate, toDate)) {
+                // Drop the group when its last row is deleted
+                day.computeIfPresent(t.getType() + "|" + t.getCategory(),
+                        (k, amount) -> amount == t.getAmount() ? null : amount - t.getAmount());
+            }
+        }
+        List<DailyCategoryTotal> merged = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<String, Integer>> day : groups.entrySet()) {
+            for (Map.Entry<String, Integer> g : day.getValue().entrySet()) {
+                int sep = g.getKey().indexOf('|');
+                merged.add(new DailyCategoryTotal(day.getKey(), g.getKey().substring(0, sep),
+                        g.getKey().substring(sep + 1), g.getValue()));
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public List<Transaction> getDetailsOfMonth(String yearMonth) throws SQLException {
+        OfflineJournal.View pending = view();
+        YearMonth ym = YearMonth.parse(yearMonth);
+        return merge(read("month|" + yearMonth, () -> store.getDetailsOfMonth(yearMonth), List.of()),
+                pending, ym.atDay(1).toString(), ym.atEndOfMonth().toString());
+    }
+
+    @Override
+    public CategoryBreakdown getCategoryBreakdown(String fromMonth, String toMonth, String type) throws SQLException {
+        OfflineJournal.View pending = view();
+        CategoryBreakdown b = read("breakdown|" + fromMonth + "|" + toMonth + "|" + type,
+                () -> store.getCategoryBreakdown(fromMonth, toMonth, type),
+                new CategoryBreakdown(type, fromMonth, toMonth, Map.of()));
+        if (pending.isEmpty()) {
+            return b;
+        }
+        String from = YearMonth.parse(fromMonth).atDay(1).toString();
+        String to = YearMonth.parse(toMonth).atEndOfMonth().toString();
+        Map<String, Map<String, Integer>> cells = new LinkedHashMap<>();
+        for (String month : b.getMonths()) {
+            cells.put(month, new LinkedHashMap<>(b.getMonth(month)));
+        }
+        for (Transaction t : inserted(pending, from, to)) {
+            if (type.equals(t.getType())) {
+                cells.computeIfAbsent(t.getDate().substring(0, 7), m -> new LinkedHashMap<>())
+                        .merge(t.getCategory(), t.getAmount(), Integer::sum);
+            }
+        }
+        for (Transaction t : pending.deletedRows) {
+            Map<String, Integer> month = cells.get(t.getDate().substring(0, 7));
+            if (month != null && type.equals(t.getType()) && inRange(t, from, to)) {
+                month.computeIfPresent(t.getCategory(),
+                        (k, amount) -> amount == t.getAmount() ? null : amount - t.getAmount());
+            }
+        }
+        return new CategoryBreakdown(type, fromMonth, toMonth, cells);
+    }
+
+    @Override
+    public void deleteTransaction(String date, String category, int amount) throws SQLException {
+        int userId = UserContext.requireUserId();
+        if (!journal.hasPending()) {
+            try {
+                store.deleteTransaction(date, category, amount);
+                stored(userId);
+                return;
+            } catch (SQLException e) {
+                if (!OfflineJournal.isConnectionFailure(e)) {
+                    throw e;
+                }
+            }
+        }
+        // Which row matches is decided on replay; reads show it then
+        journal.append(List.of(MutationJournal.Entry.deleteMatching(userId, date, category, amount)));
+    }
+
+    private OfflineJournal.View view() {
+        return journal.view(UserContext.requireUserId());
+    }
+
+    // Stored part of a read, from the database or, while it is unreachable, the snapshot
+    private <T> T read(String key, ReadSnapshot.StoredRead<T> read, T missing) throws SQLException {
+        return journal.snapshot().read(UserContext.requireUserId(), key, read, missing);
+    }
+
+    // Snapshot of a period listing, for a stream or visit whose query failed
+    private List<Transaction> offlineRows(SQLException e, String fromDate, String toDate,
+                                          TransactionProjection projection) throws SQLException {
+        if (!OfflineJournal.isConnectionFailure(e)) {
+            throw e;
+        }
+        return journal.snapshot().offline(UserContext.requireUserId(),
+                periodKey(fromDate, toDate, projection), List.of());
+    }
+
+    private static String periodKey(String fromDate, String toDate, TransactionProjection projection) {
+        return "period|" + fromDate + "|" + toDate + "|" + projection;
+    }
+
+    // Rows of the user were stored: snapshot results no longer match the database
+    private void stored(int userId) {
+        journal.snapshot().invalidate(userId);
+    }
+
+    private static List<Transaction> merge(List<Transaction> stored, OfflineJournal.View pending,
+                                           String fromDate, String toDate) {
+        if (pending.isEmpty()) {
+            return new ArrayList<>(stored); // the stored list is kept by the snapshot
+        }
+        List<Transaction> rows = new ArrayList<>(stored.size());
+        for (Transaction t : stored) {
+            if (!pending.deletedIds.contains(t.getId())) {
+                rows.add(t);
+            }
+        }
+        rows.addAll(inserted(pending, fromDate, toDate));
+        // Stable: journaled rows stay after the stored rows of their day
+        rows.sort(Comparator.comparing(Transaction::getLocalDate));
+        return rows;
+    }
+
+    private static Stream<Transaction> merge(Stream<Transaction> stored, OfflineJournal.View pending,
+                                             String fromDate, String toDate) {
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        return Stream.concat(stored.filter(t -> !pending.deletedIds.contains(t.getId())),
+                inserted(pending, fromDate, toDate).stream());
+    }
+
+    // Journaled inserts dated within [fromDate, toDate], in journal order
+    private static List<Transaction> inserted(OfflineJournal.View pending, String fromDate, String toDate) {
+        List<Transaction> rows = new ArrayList<>();
+        for (Transaction t : pending.inserted) {
+            if (inRange(t, fromDate, toDate)) {
+                rows.add(t);
+            }
+        }
+        rows.sort(Comparator.comparing(Transaction::getLocalDate));
+        return rows;
+    }
+
+    // Amount added by journaled inserts minus the known rows of journaled deletes
+    private static int delta(OfflineJournal.View pending, String type, String fromDate, String toDate) {
+        int delta = 0;
+        for (Transaction t : pending.inserted) {
+            if (type.equals(t.getType()) && inRange(t, fromDate, toDate)) {
+                delta += t.getAmount();
+            }
+        }
+        for (Transaction t : pending.deletedRows) {
+            if (type.equals(t.getType()) && inRange(t, fromDate, toDate)) {
+                delta -= t.getAmount();
+            }
+        }
+        return delta;
+    }
+
+    private static boolean inRange(Transaction t, String fromDate, String toDate) {
+        // "YYYY-MM-DD" strings sort like dates
+        return t.getDate().compareTo(fromDate) >= 0 && t.getDate().compareTo(toDate) <= 0;
+    }
+}
@@ -0,0 +1,289 @@
+package app.dao;
+
+import app.model.Budget;
+import app.model.Transaction;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Append-only local journal of pending mutations, synced to disk before a
+ * mutation is acknowledged. One line per event:
+ *
+ * <pre>
+ * A &lt;key&gt; &lt;userId&gt; &lt;type&gt; &lt;date&gt; &lt;category&gt; &lt;amount&gt; &lt;memo&gt; .                   insert
+ * D &lt;key&gt; &lt;userId&gt; &lt;id&gt; &lt;clientKey&gt; &lt;type&gt; &lt;date&gt; &lt;category&gt; &lt;amount&gt; .        delete
+ * V &lt;key&gt; &lt;userId&gt; &lt;date&gt; &lt;category&gt; &lt;amount&gt; .                                delete matching
+ * B &lt;key&gt; &lt;userId&gt; &lt;yearMonth&gt; &lt;limit&gt; .                                          budget upsert
+ * C &lt;key&gt;                                                                      done
+ * </pre>
+ *
+ * The key of an insert is the transaction's client key, so a replayed insert
+ * can be recognized once stored. A delete names the row by id, or by the
+ * client key of a journaled insert, plus the row's values when known. Before a
+ * delete matching is replayed, the row it matched is journaled as a delete
+ * under the same key; recovery keeps the last line of a key, so a replay after
+ * a crash deletes that row again instead of the next match. Category
+ * and memo are Base64, absent values "-". The trailing "." marks a complete
+ * line; a torn last line left by a crash is ignored on recovery. The file is
+ * truncated whenever no entry is pending.
+ */
+public final class MutationJournal implements AutoCloseable {
+
+    /** Kind of a journaled mutation. */
+    public enum Kind {
+        INSERT, DELETE, DELETE_MATCHING, BUDGET
+    }
+
+    /** A journaled mutation. */
+    public static final class Entry {
+        private final Kind kind;
+        private final String key;
+        private final int userId;
+        private final Transaction transaction;
+        private final int id;
+        private final String targetKey;
+        private final Budget budget;
+
+        private Entry(Kind kind, String key, int userId, Transaction transaction, int id, String targetKey, Budget budget) {
+            this.kind = kind;
+            this.key = key;
+            this.userId = userId;
+            this.transaction = transaction;
+            this.id = id;
+            this.targetKey = targetKey;
+            this.budget = budget;
+        }
+
+        /**
+         * @param t Transaction with a client key, which becomes the entry's key
+         */
+        public static Entry insert(int userId, Transaction t) {
+            if (t.getClientKey() == null) {
+                throw new IllegalArgumentException("Journaled inserts need a client key");
+            }
+            return new Entry(Kind.INSERT, t.getClientKey(), userId, t, 0, null, null);
+        }
+
+        /**
+         * @param id        Id of a stored row, or 0 when the row is a journaled insert
+         * @param targetKey Client key of the journaled insert to delete (when id is 0)
+         * @param row       The row's values if known (for totals), or null
+         */
+        public static Entry delete(int userId, int id, String targetKey, Transaction row) {
+            return new Entry(Kind.DELETE, newKey(), userId, row, id, targetKey, null);
+        }
+
+        public static Entry deleteMatching(int userId, String date, String category, int amount) {
+            return new Entry(Kind.DELETE_MATCHING, newKey(), userId, new Transaction(null, date, category, amount, null),
+                    0, null, null);
+        }
+
+        /**
+         * @param matching A delete matching entry
+         * @param row      The stored row it matched, which replaces it under the same key
+         */
+        public static Entry resolved(Entry matching, Transaction row) {
+            return new Entry(Kind.DELETE, matching.key, matching.userId, row, row.getId(), null, null);
+        }
+
+        public static Entry budget(int userId, Budget b) {
+            return new Entry(Kind.BUDGET, newKey(), userId, null, 0, null, b);
+        }
+
+        public Kind getKind() { return kind; }
+        public String getKey() { return key; }
+        public int getUserId() { return userId; }
+
+        /**
+         * @return The inserted transaction, the deleted row (may be null) or the match values
+         */
+        public Transaction getTransaction() { return transaction; }
+
+        public int getId() { return id; }
+        public String getTargetKey() { return targetKey; }
+        public Budget getBudget() { return budget; }
+    }
+
+    private final Path file;
+    private FileChannel channel;
+    // Keys appended but not yet marked done
+    private final Set<String> pending = new HashSet<>();
+
+    public MutationJournal(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Open the journal for appending.
+     *
+     * @return Entries that were appended but never marked done, in journal order
+     */
+    public synchronized List<Entry> open() throws IOException {
+        Map<String, Entry> undone = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                try {
+                    if (line.startsWith("C ")) {
+                        undone.remove(line.substring(2));
+                    } else {
+                        Entry e = parse(line);
+                        if (e != null) {
+                            undone.put(e.key, e); // a resolved delete matching keeps its place
+                        }
+                    }
+                } catch (RuntimeException ignored) {
+                    // torn or foreign line
+                }
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (undone.isEmpty()) {
+            channel.truncate(0);
+        }
+        channel.position(channel.size());
+        pending.clear();
+        pending.addAll(undone.keySet());
+        return new ArrayList<>(undone.values());
+    }
+
+    public void append(Entry e) throws IOException {
+        appendAll(List.of(e));
+    }
+
+    /**
+     * Append entries with a single sync.
+     */
+    public synchronized void appendAll(Collection<Entry> entries) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Entry e : entries) {
+            lines.append(format(e)).append('\n');
+        }
+        write(lines.toString());
+        for (Entry e : entries) {
+            pending.add(e.key);
+        }
+    }
+
+    /**
+     * Mark entries committed (or cancelled); they are not returned by the next {@link #open()}.
+     */
+    public synchronized void markDone(Collection<String> keys) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String key : keys) {
+            lines.append("C ").append(key).append('\n');
+        }
+        write(lines.toString());
+        pending.removeAll(keys);
+        if (pending.isEmpty()) {
+            channel.truncate(0);
+            channel.position(0);
+        }
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(String text) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * @return The entry as one journal line (without the line break)
+     */
+    static String format(Entry e) {
+        Transaction t = e.transaction;
+        switch (e.kind) {
+            case INSERT:
+                return "A " + e.key + " " + e.userId + " " + t.getType() + " " + t.getDate() + " "
+                        + encode(t.getCategory()) + " " + t.getAmount() + " " + encode(t.getMemo()) + " .";
+            case DELETE:
+                return "D " + e.key + " " + e.userId + " " + e.id + " " + plain(e.targetKey) + " "
+                        + (t != null ? plain(t.getType()) + " " + t.getDate() + " " + encode(t.getCategory())
+                                + " " + t.getAmount() : "- - - -") + " .";
+            case DELETE_MATCHING:
+                return "V " + e.key + " " + e.userId + " " + t.getDate() + " " + encode(t.getCategory())
+                        + " " + t.getAmount() + " .";
+            default:
+                return "B " + e.key + " " + e.userId + " " + e.budget.getYearMonth() + " "
+                        + e.budget.getLimitAmt() + " .";
+        }
+    }
+
+    // null for lines that are not complete mutation entries
+    private static Entry parse(String line) {
+        String[] f = line.split(" ");
+        if (f.length < 2 || !".".equals(f[f.length - 1])) {
+            return null;
+        }
+        int userId = Integer.parseInt(f[2]);
+        if (f.length == 9 && "A".equals(f[0])) {
+            Transaction t = new Transaction(f[3], f[4], decode(f[5]), Integer.parseInt(f[6]), decode(f[7]));
+            t.setClientKey(f[1]);
+            return new Entry(Kind.INSERT, f[1], userId, t, 0, null, null);
+        } else if (f.length == 10 && "D".equals(f[0])) {
+            int id = Integer.parseInt(f[3]);
+            Transaction row = null;
+            if (!"-".equals(f[6])) {
+                row = new Transaction(id, unplain(f[5]), f[6], decode(f[7]), Integer.parseInt(f[8]), null);
+            }
+            return new Entry(Kind.DELETE, f[1], userId, row, id, unplain(f[4]), null);
+        } else if (f.length == 7 && "V".equals(f[0])) {
+            return new Entry(Kind.DELETE_MATCHING, f[1], userId,
+                    new Transaction(null, f[3], decode(f[4]), Integer.parseInt(f[5]), null), 0, null, null);
+        } else if (f.length == 6 && "B".equals(f[0])) {
+            return new Entry(Kind.BUDGET, f[1], userId, null, 0, null, new Budget(f[3], Integer.parseInt(f[4])));
+        }
+        return null;
+    }
+
+    private static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static String plain(String s) {
+        return s == null ? "-" : s;
+    }
+
+    private static String unplain(String s) {
+        return "-".equals(s) ? null : s;
+    }
+
+    private static String encode(String s) {
+        return s == null ? "-" : Base64.getEncoder().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String s) {
+        return "-".equals(s) ? null : new String(Base64.getDecoder().decode(s), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,509 @@
+package app.dao;
+
+import app.model.Budget;
+import app.model.Transaction;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline operation against a remote database.
+ *
+ * {@link #transactionStore()} and {@link #budgetStore()} wrap the JDBC stores.
+ * A mutation (insert, delete, budget upsert) goes straight to the database
+ * while it is reachable. When the write fails because the server cannot be
+ * reached, or older mutations are still waiting, it is appended to a local
+ * {@link MutationJournal} (synced to disk) instead and reported as done;
+ * journaled inserts get provisional negative ids.
+ *
+ * {@link #replay()} drains the journal in order once the server is back,
+ * storing runs of inserts with one {@link TransactionStore#insertAll} per
+ * batch. Inserts carry client keys, so a replay after a crash or a lost
+ * commit acknowledgement never stores a row twice; likewise a delete matching
+ * journals the row it matched before deleting it. Entries the database
+ * rejects for other reasons are copied to a ".rejected" file next to the
+ * journal and skipped.
+ *
+ * Reads through the wrapped stores merge the pending entries: journaled rows
+ * are listed and counted, deleted rows are left out, and the newest journaled
+ * budget of a month wins. While the server is unreachable the stored part of
+ * a read comes from a {@link ReadSnapshot} of its last result; a read never
+ * made before shows the pending entries only ({@link #hasPartialReads()}).
+ * Running totals seeded from such a read are corrected by their next
+ * reconciliation.
+ *
+ * Settings (-Dspendmate.offline.*): journal (default spendmate-offline.journal),
+ * batchSize (500), snapshotSize (reads kept per user, 200).
+ */
+public class OfflineJournal implements AutoCloseable {
+
+    private static final int SNAPSHOT_SIZE = Integer.getInteger("spendmate.offline.snapshotSize", 200);
+
+    private final TransactionStore transactions;
+    private final BudgetStore budgets;
+    private final MutationJournal journal;
+    private final Path rejectedFile;
+    private final int batchSize;
+    private final ReadSnapshot snapshot = new ReadSnapshot(SNAPSHOT_SIZE);
+
+    // Pending entries in journal order, by key
+    private final LinkedHashMap<String, MutationJournal.Entry> pending = new LinkedHashMap<>();
+    // Provisional id <-> client key of journaled inserts
+    private final Map<Integer, String> keysByProvisionalId = new HashMap<>();
+    private final Map<String, Integer> provisionalIds = new HashMap<>();
+    // Provisional id -> stored id, for inserts replayed in this session
+    private final Map<Integer, Integer> replayedIds = new HashMap<>();
+    // Keys being replayed right now
+    private final Set<String> inFlight = new HashSet<>();
+    private final AtomicInteger nextProvisionalId = new AtomicInteger();
+    private final Object replayLock = new Object();
+
+    public OfflineJournal(TransactionStore transactions, BudgetStore budgets) {
+        this(transactions, budgets,
+             Paths.get(System.getProperty("spendmate.offline.journal", "spendmate-offline.journal")),
+             Integer.getInteger("spendmate.offline.batchSize", 500));
+    }
+
+    public OfflineJournal(TransactionStore transactions, BudgetStore budgets, Path journalFile, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.transactions = transactions;
+        this.budgets = budgets;
+        this.journal = new MutationJournal(journalFile);
+        this.rejectedFile = journalFile.resolveSibling(journalFile.getFileName() + ".rejected");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Open the journal and load the entries left over from a previous run;
+     * they are stored by the next {@link #replay()}.
+     *
+     * @return Number of pending entries
+     */
+    public synchronized int open() throws IOException {
+        List<MutationJournal.Entry> recovered = journal.open();
+        for (MutationJournal.Entry e : recovered) {
+            track(e);
+        }
+        if (!recovered.isEmpty()) {
+            System.out.println("Offline journal: " + recovered.size() + " pending changes");
+        }
+        return recovered.size();
+    }
+
+    /**
+     * @return Transaction store that journals writes while the database is unreachable
+     */
+    public TransactionStore transactionStore() {
+        return new JournaledTransactionStore(this, transactions);
+    }
+
+    /**
+     * @return Budget store that journals writes while the database is unreachable
+     */
+    public BudgetStore budgetStore() {
+        return new JournaledBudgetStore(this, budgets);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return true if the latest read made while the database was unreachable
+     *         had no snapshot of the stored data, so it showed the pending changes only
+     */
+    public boolean hasPartialReads() {
+        return snapshot.isPartial();
+    }
+
+    /**
+     * @return true if the exception (or one of its causes) means the database
+     *         could not be reached, as opposed to a rejected statement
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SocketException || t instanceof SocketTimeoutException
+                    || t instanceof UnknownHostException) {
+                return true;
+            }
+            // SQLState class 08 = connection exception
+            if (t instanceof SQLException && ((SQLException) t).getSQLState() != null
+                    && ((SQLException) t).getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Store pending entries in journal order, in batches of up to batchSize,
+     * until the journal is empty or the database cannot be reached.
+     *
+     * @return Number of entries stored (or rejected)
+     */
+    public int replay() {
+        synchronized (replayLock) {
+            int replayed = 0;
+            while (true) {
+                List<MutationJournal.Entry> batch;
+                synchronized (this) {
+                    batch = new ArrayList<>();
+                    for (MutationJournal.Entry e : pending.values()) {
+                        if (batch.size() == batchSize) {
+                            break;
+                        }
+                        batch.add(e);
+                        inFlight.add(e.getKey());
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return replayed;
+                }
+                try {
+                    for (int i = 0; i < batch.size(); ) {
+                        int end = i + 1;
+                        if (batch.get(i).getKind() == MutationJournal.Kind.INSERT) {
+                            // A run of one user's inserts is stored in one database transaction
+                            while (end < batch.size() && batch.get(end).getKind() == MutationJournal.Kind.INSERT
+                                    && batch.get(end).getUserId() == batch.get(i).getUserId()) {
+                                end++;
+                            }
+                        }
+                        replayed += replayRun(batch.subList(i, end));
+                        i = end;
+                    }
+                } catch (SQLException e) {
+                    // Still offline; the rest stays pending for the next run
+                    return replayed;
+                } catch (IOException e) {
+                    System.out.println("Offline journal: cannot write the journal: " + e.getMessage());
+                    return replayed;
+                } finally {
+                    synchronized (this) {
+                        inFlight.clear();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    // Returns the number of entries done; throws SQLException only when the database is unreachable
+    private int replayRun(List<MutationJournal.Entry> run) throws SQLException, IOException {
+        try {
+            if (run.get(0).getKind() == MutationJournal.Kind.INSERT) {
+                replayInserts(run);
+            } else {
+                replayOne(run.get(0)); // other kinds are replayed one at a time
+            }
+            done(run);
+            return run.size();
+        } catch (SQLException | RuntimeException e) {
+            if (e instanceof SQLException && isConnectionFailure((SQLException) e)) {
+                throw (SQLException) e;
+            }
+            if (run.size() > 1) {
+                // Find the entry the database rejects; store the others
+                int count = 0;
+                for (MutationJournal.Entry one : run) {
+                    count += replayRun(List.of(one));
+                }
+                return count;
+            }
+            reject(run.get(0), e);
+            return 1;
+        }
+    }
+
+    private void replayInserts(List<MutationJournal.Entry> run) throws SQLException {
+        UserContext.callAs(run.get(0).getUserId(), () -> {
+            List<String> keys = new ArrayList<>(run.size());
+            for (MutationJournal.Entry e : run) {
+                keys.add(e.getKey());
+            }
+            // A lost acknowledgement or a crash may have stored some of them already
+            Map<String, Integer> stored = transactions.findIdsByClientKeys(keys);
+            List<Transaction> toInsert = new ArrayList<>();
+            Map<String, Transaction> rows = new HashMap<>();
+            for (MutationJournal.Entry e : run) {
+                if (!stored.containsKey(e.getKey())) {
+                    Transaction row = copy(e.getTransaction());
+                    toInsert.add(row);
+                    rows.put(e.getKey(), row);
+                }
+            }
+            transactions.insertAll(toInsert);
+            synchronized (this) {
+                for (MutationJournal.Entry e : run) {
+                    Integer provisional = provisionalIds.get(e.getKey());
+                    Transaction row = rows.get(e.getKey());
+                    if (provisional != null) {
+                        replayedIds.put(provisional, row != null ? row.getId() : stored.get(e.getKey()));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private void replayOne(MutationJournal.Entry e) throws SQLException, IOException {
+        if (e.getKind() == MutationJournal.Kind.DELETE_MATCHING) {
+            Transaction row = UserContext.callAs(e.getUserId(), () -> findMatching(e.getTransaction()));
+            if (row == null) {
+                return; // nothing matches (any more)
+            }
+            // Journaled before the delete: a replay after a crash deletes this row, not the next match
+            replayOne(resolve(e, row));
+            return;
+        }
+        UserContext.callAs(e.getUserId(), () -> {
+            switch (e.getKind()) {
+                case DELETE:
+                    int id = e.getId();
+                    if (id <= 0) {
+                        Integer stored = transactions.findIdsByClientKeys(List.of(e.getTargetKey())).get(e.getTargetKey());
+                        if (stored == null) {
+                            return null; // the insert was never stored
+                        }
+                        id = stored;
+                    }
+                    transactions.delete(id);
+                    break;
+                case BUDGET:
+                    budgets.upsert(e.getBudget());
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected entry " + e.getKind());
+            }
+            return null;
+        });
+    }
+
+    // The row TransactionStore.deleteTransaction picks: the lowest id with the date, category and amount
+    private Transaction findMatching(Transaction match) throws SQLException {
+        Transaction first = null;
+        for (Transaction t : transactions.findByPeriod(match.getDate(), match.getDate())) {
+            if (match.getCategory() != null && match.getCategory().equals(t.getCategory())
+                    && t.getAmount() == match.getAmount()
+                    && (first == null || t.getId() < first.getId())) {
+                first = t;
+            }
+        }
+        return first;
+    }
+
+    private synchronized MutationJournal.Entry resolve(MutationJournal.Entry matching, Transaction row) throws IOException {
+        MutationJournal.Entry resolved = MutationJournal.Entry.resolved(matching, row);
+        journal.append(resolved);
+        pending.put(resolved.getKey(), resolved);
+        return resolved;
+    }
+
+    private void done(List<MutationJournal.Entry> run) throws IOException {
+        List<String> keys = new ArrayList<>(run.size());
+        for (MutationJournal.Entry e : run) {
+            keys.add(e.getKey());
+        }
+        journal.markDone(keys);
+        for (MutationJournal.Entry e : run) {
+            snapshot.invalidate(e.getUserId());
+        }
+        synchronized (this) {
+            for (String key : keys) {
+                pending.remove(key);
+                Integer provisional = provisionalIds.remove(key);
+                if (provisional != null) {
+                    keysByProvisionalId.remove(provisional);
+                }
+            }
+        }
+    }
+
+    private void reject(MutationJournal.Entry e, Exception cause) throws IOException {
+        System.out.println("Offline journal: database rejected " + e.getKind() + " " + e.getKey()
+                + " (kept in " + rejectedFile + "): " + cause.getMessage());
+        Files.write(rejectedFile, (MutationJournal.format(e) + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        done(List.of(e));
+    }
+
+    // ---- used by the journaled stores ----
+
+    ReadSnapshot snapshot() {
+        return snapshot;
+    }
+
+    synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Journal entries and track them as pending. Inserts get a provisional id,
+     * which is also set on the caller's transaction.
+     */
+    void append(List<MutationJournal.Entry> entries) throws SQLException {
+        List<MutationJournal.Entry> copies = new ArrayList<>(entries.size());
+        for (MutationJournal.Entry e : entries) {
+            copies.add(e.getKind() == MutationJournal.Kind.INSERT
+                    ? MutationJournal.Entry.insert(e.getUserId(), copy(e.getTransaction())) : e);
+        }
+        synchronized (this) {
+            try {
+                journal.appendAll(copies);
+            } catch (IOException e) {
+                throw new SQLException("Database unreachable and the offline journal cannot be written", e);
+            }
+            for (int i = 0; i < copies.size(); i++) {
+                Integer provisional = track(copies.get(i));
+                if (provisional != null) {
+                    entries.get(i).getTransaction().setId(provisional);
+                }
+            }
+        }
+    }
+
+    // Call with the monitor held; returns the provisional id of an insert
+    private Integer track(MutationJournal.Entry e) {
+        pending.put(e.getKey(), e);
+        if (e.getKind() != MutationJournal.Kind.INSERT) {
+            return null;
+        }
+        int provisional = -nextProvisionalId.incrementAndGet();
+        e.getTransaction().setId(provisional);
+        keysByProvisionalId.put(provisional, e.getKey());
+        provisionalIds.put(e.getKey(), provisional);
+        return provisional;
+    }
+
+    /**
+     * @return Stored id of a replayed insert, or 0 if it has not been replayed (or is unknown)
+     */
+    synchronized int storedId(int provisionalId) {
+        return replayedIds.getOrDefault(provisionalId, 0);
+    }
+
+    /**
+     * Delete a journaled insert by its provisional id: dropped from the journal
+     * if it is still waiting, otherwise deleted by client key after its replay.
+     *
+     * @return false if no such insert is pending for the user
+     */
+    boolean deleteJournaled(int userId, int provisionalId) throws SQLException {
+        synchronized (this) {
+            String key = keysByProvisionalId.get(provisionalId);
+            MutationJournal.Entry insert = key != null ? pending.get(key) : null;
+            if (insert == null || insert.getUserId() != userId || isDeleted(key)) {
+                return false;
+            }
+            if (!inFlight.contains(key)) {
+                try {
+                    journal.markDone(List.of(key));
+                } catch (IOException e) {
+                    throw new SQLException("Cannot write the offline journal", e);
+                }
+                pending.remove(key);
+                keysByProvisionalId.remove(provisionalId);
+                provisionalIds.remove(key);
+                return true;
+            }
+            append(List.of(MutationJournal.Entry.delete(userId, 0, key, copy(insert.getTransaction()))));
+            return true;
+        }
+    }
+
+    // Call with the monitor held
+    private boolean isDeleted(String clientKey) {
+        for (MutationJournal.Entry e : pending.values()) {
+            if (e.getKind() == MutationJournal.Kind.DELETE && clientKey.equals(e.getTargetKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pending changes of one user, as seen by reads.
+     */
+    static final class View {
+        /** Journaled inserts not deleted since, with provisional ids (copies). */
+        final List<Transaction> inserted = new ArrayList<>();
+        /** Ids of stored rows with a pending delete. */
+        final Set<Integer> deletedIds = new HashSet<>();
+        /** Pending deletes of stored rows whose values are known (copies). */
+        final List<Transaction> deletedRows = new ArrayList<>();
+        /** Newest pending budget per month. */
+        final Map<String, Budget> budgets = new HashMap<>();
+
+        boolean isEmpty() {
+            return inserted.isEmpty() && deletedIds.isEmpty() && budgets.isEmpty();
+        }
+    }
+
+    synchronized View view(int userId) {
+        View view = new View();
+        Set<String> deletedKeys = new HashSet<>();
+        for (MutationJournal.Entry e : pending.values()) {
+            if (e.getUserId() == userId && e.getKind() == MutationJournal.Kind.DELETE && e.getTargetKey() != null) {
+                deletedKeys.add(e.getTargetKey());
+            }
+        }
+        for (MutationJournal.Entry e : pending.values()) {
+            if (e.getUserId() != userId) {
+                continue;
+            }
+            switch (e.getKind()) {
+                case INSERT:
+                    if (!deletedKeys.contains(e.getKey())) {
+                        view.inserted.add(copy(e.getTransaction()));
+                    }
+                    break;
+                case DELETE:
+                    if (e.getTargetKey() == null && view.deletedIds.add(e.getId()) && e.getTransaction() != null) {
+                        view.deletedRows.add(copy(e.getTransaction()));
+                    }
+                    break;
+                case BUDGET:
+                    view.budgets.put(e.getBudget().getYearMonth(), e.getBudget());
+                    break;
+                default:
+                    break; // matched deletes show once replayed
+            }
+        }
+        return view;
+    }
+
+    static Transaction copy(Transaction t) {
+        Transaction c = new Transaction(t.getId(), t.getType(), t.getLocalDate(), t.getCategory(), t.getAmount(), t.getMemo());
+        c.setClientKey(t.getClientKey());
+        return c;
+    }
+
+    static String newClientKey() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,324 @@
+package app.dao;
+
+import app.model.Transaction;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Monthly RANGE partitioning of the transactions table on MySQL.
+ *
+ * Every transaction query is bounded by date, so with one partition per month
+ * MySQL prunes a month or day query down to a single partition, and whole
+ * months can be archived or dropped without a row-by-row DELETE.
+ *
+ * Layout: {@code pYYYYMM VALUES LESS THAN (TO_DAYS(first day of next month))}
+ * per month plus a catch-all {@code pmax}. The oldest partition also holds any
+ * rows dated before it. {@link #maintain(Connection)} splits future months out
+ * of {@code pmax} and expires months older than the retention window.
+ *
+ * On other backends (the embedded H2 database) and on tables that were never
+ * partitioned every method is a no-op.
+ */
+public class PartitionMaintenance {
+
+    /** What happens to a partition that falls out of the retention window. */
+    public enum Expiry {
+        /** Swap the partition into its own table ({@code SpendMate_transactions_pYYYYMM}), then drop it. */
+        ARCHIVE,
+        /** Drop the partition and its rows. */
+        DROP
+    }
+
+    private static final String TABLE = DBConnection.TABLE_TRANSACTIONS;
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final int monthsAhead;
+    private final int retainMonths;
+    private final Expiry expiry;
+
+    /**
+     * Configured from {@code -Dspendmate.partitions.monthsAhead} (default 3),
+     * {@code -Dspendmate.partitions.retainMonths} (default 0 = keep everything)
+     * and {@code -Dspendmate.partitions.expire=archive|drop} (default archive).
+     */
+    public PartitionMaintenance() {
+        this(Integer.getInteger("spendmate.partitions.monthsAhead", 3),
+             Integer.getInteger("spendmate.partitions.retainMonths", 0),
+             "drop".equalsIgnoreCase(System.getProperty("spendmate.partitions.expire", "archive"))
+                     ? Expiry.DROP : Expiry.ARCHIVE);
+    }
+
+    /**
+     * @param monthsAhead  Months after the current one that must have their own partition
+     * @param retainMonths Months (including the current one) to keep; 0 keeps everything
+     * @param expiry       What to do with older partitions
+     */
+    public PartitionMaintenance(int monthsAhead, int retainMonths, Expiry expiry) {
+        if (monthsAhead < 0 || retainMonths < 0) {
+            throw new IllegalArgumentException("monthsAhead and retainMonths must not be negative");
+        }
+        this.monthsAhead = monthsAhead;
+        this.retainMonths = retainMonths;
+        this.expiry = expiry;
+    }
+
+    /**
+     * @return true if the connection's database supports table partitioning
+     */
+    public static boolean isSupported(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") || product.contains("mariadb");
+    }
+
+    /**
+     * @return true if the transactions table is partitioned
+     */
+    public boolean isPartitioned(Connection conn) throws SQLException {
+        return isSupported(conn) && !listPartitions(conn).isEmpty();
+    }
+
+    /**
+     * Convert the transactions table to monthly partitions, covering the oldest
+     * stored month up to {@code monthsAhead} months from now. Rebuilds the table,
+     * so run it from {@code DbTool} rather than while the app is in use.
+     *
+     * @return true if the table was converted, false if unsupported or already partitioned
+     */
+    public boolean partitionTable(Connection conn) throws SQLException {
+        if (isPartitioned(conn) || !isSupported(conn)) {
+            return false;
+        }
+        YearMonth first = YearMonth.now();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(`date`) FROM " + TABLE)) {
+            if (rs.next() && rs.getObject(1) != null) {
+                YearMonth oldest = YearMonth.from(rs.getObject(1, LocalDate.class));
+                if (oldest.isBefore(first)) {
+                    first = oldest;
+                }
+            }
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE " + TABLE + " PARTITION BY RANGE (TO_DAYS(`date`)) (");
+        for (YearMonth ym = first; !ym.isAfter(lastCovered()); ym = ym.plusMonths(1)) {
+            sql.append(partitionDefinition(ym)).append(", ");
+        }
+        sql.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN MAXVALUE)");
+
+        try (Statement stmt = conn.createStatement()) {
+            // The partitioning column must be part of every unique key, including the primary key
+            stmt.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (`id`, `date`)");
+            stmt.execute(sql.toString());
+        }
+        return true;
+    }
+
+    /**
+     * Pre-create partitions for the coming months and expire those past the
+     * retention window.
+     *
+     * @return Number of partitions created plus expired (0 on unpartitioned tables)
+     */
+    public int maintain(Connection conn) throws SQLException {
+        if (!isSupported(conn)) {
+            return 0;
+        }
+        List<YearMonth> months = partitionMonths(listPartitions(conn));
+        if (months.isEmpty()) {
+            return 0;
+        }
+        return createFuturePartitions(conn, months) + expireOldPartitions(conn, months);
+    }
+
+    private int createFuturePartitions(Connection conn, List<YearMonth> months) throws SQLException {
+        YearMonth last = months.get(months.size() - 1);
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth ym = last.plusMonths(1); !ym.isAfter(lastCovered()); ym = ym.plusMonths(1)) {
+            definitions.add(partitionDefinition(ym));
+        }
+        if (definitions.isEmpty()) {
+            return 0;
+        }
+        // pmax only holds rows dated past the last month, so splitting it moves few or no rows
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION +
+                    " INTO (" + String.join(", ", definitions) + ")");
+        }
+        System.out.println("Created " + (definitions.size() - 1) + " partitions up to " + lastCovered());
+        return definitions.size() - 1;
+    }
+
+    private int expireOldPartitions(Connection conn, List<YearMonth> months) throws SQLException {
+        if (retainMonths == 0) {
+            return 0;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(retainMonths - 1L);
+        int expired = 0;
+        // Keep at least one month partition so the table stays range partitioned
+        for (int i = 0; i < months.size() - 1 && months.get(i).isBefore(oldestKept); i++) {
+            expire(conn, months.get(i));
+            expired++;
+        }
+        return expired;
+    }
+
+    private void expire(Connection conn, YearMonth ym) throws SQLException {
+        String partition = partitionName(ym);
+        // An archived month's rollups also cover its archive file, so only the rows still here are subtracted
+        Map<Integer, List<Transaction>> remaining = isArchived(conn, ym) ? rowsByUser(conn, ym) : null;
+        try (Statement stmt = conn.createStatement()) {
+            if (expiry == Expiry.ARCHIVE) {
+                String archive = archiveTable(ym);
+                stmt.execute("CREATE TABLE " + archive + " LIKE " + TABLE);
+                stmt.execute("ALTER TABLE " + archive + " REMOVE PARTITIONING");
+                // Metadata-only swap: the month's rows become the archive table
+                stmt.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partition + " WITH TABLE " + archive);
+            }
+            stmt.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+        }
+        // DDL commits implicitly; if this step fails, DbTool rebuild-rollups repairs the totals
+        if (remaining == null) {
+            Rollup.deleteMonth(conn, ym);
+        } else {
+            subtract(conn, remaining);
+        }
+        System.out.println((expiry == Expiry.ARCHIVE ? "Archived " : "Dropped ") + "partition " + partition
+                + (expiry == Expiry.ARCHIVE ? " into " + archiveTable(ym) : ""));
+    }
+
+    private static boolean isArchived(Connection conn, YearMonth ym) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM " + DBConnection.TABLE_ARCHIVED_MONTHS + " WHERE `year_month` = ?")) {
+            pstmt.setString(1, ym.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // The month's rows still in the table (added after it was archived), per owner
+    private static Map<Integer, List<Transaction>> rowsByUser(Connection conn, YearMonth ym) throws SQLException {
+        String sql = "SELECT `id`, `user_id`, `type`, `date`, `category`, `amount`, `memo` FROM " + TABLE +
+                     " WHERE `date` >= ? AND `date` < ?";
+        Map<Integer, List<Transaction>> rows = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setObject(1, ym.atDay(1));
+            pstmt.setObject(2, ym.plusMonths(1).atDay(1));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                TransactionRowMapper mapper = new TransactionRowMapper(rs);
+                while (rs.next()) {
+                    rows.computeIfAbsent(rs.getInt("user_id"), k -> new ArrayList<>()).add(mapper.map(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void subtract(Connection conn, Map<Integer, List<Transaction>> rowsByUser) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Map.Entry<Integer, List<Transaction>> e : rowsByUser.entrySet()) {
+                Rollup.applyAll(conn, e.getKey(), e.getValue(), -1);
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Check that a month query and a day query on the given month each read a
+     * single partition, using the {@code partitions} column of EXPLAIN.
+     *
+     * @return Partitions read by the month query and by the day query (first day of the month)
+     */
+    public List<String> explainPruning(Connection conn, YearMonth ym) throws SQLException {
+        List<String> result = new ArrayList<>();
+        // Same shape as the DAO queries; the user id does not affect pruning
+        String sql = "EXPLAIN SELECT `id` FROM " + TABLE + " WHERE `user_id`=? AND `date` >= ? AND `date` < ?";
+        try (PreparedStatement month = conn.prepareStatement(sql)) {
+            month.setInt(1, 1);
+            month.setObject(2, ym.atDay(1));
+            month.setObject(3, ym.plusMonths(1).atDay(1));
+            result.add(explainedPartitions(month));
+        }
+        sql = "EXPLAIN SELECT `id` FROM " + TABLE + " WHERE `user_id`=? AND `date`=?";
+        try (PreparedStatement day = conn.prepareStatement(sql)) {
+            day.setInt(1, 1);
+            day.setObject(2, ym.atDay(1));
+            result.add(explainedPartitions(day));
+        }
+        return result;
+    }
+
+    private static String explainedPartitions(PreparedStatement explain) throws SQLException {
+        try (ResultSet rs = explain.executeQuery()) {
+            return rs.next() ? rs.getString("partitions") : null;
+        }
+    }
+
+    /**
+     * @return Partition names of the transactions table in range order (empty if unpartitioned)
+     */
+    public List<String> listPartitions(Connection conn) throws SQLException {
+        String sql = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                     "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                     "ORDER BY PARTITION_ORDINAL_POSITION";
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, TABLE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static List<YearMonth> partitionMonths(List<String> names) {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            if (!MAX_PARTITION.equalsIgnoreCase(name)) {
+                months.add(YearMonth.parse(name.toLowerCase(Locale.ROOT), NAME_FORMAT));
+            }
+        }
+        return months;
+    }
+
+    private YearMonth lastCovered() {
+        return YearMonth.now().plusMonths(monthsAhead);
+    }
+
+    private static String partitionName(YearMonth ym) {
+        return ym.format(NAME_FORMAT);
+    }
+
+    private static String partitionDefinition(YearMonth ym) {
+        return "PARTITION " + partitionName(ym) +
+               " VALUES LESS THAN (TO_DAYS('" + ym.plusMonths(1).atDay(1) + "'))";
+    }
+
+    /**
+     * @return Name of the table an archived month is moved to
+     */
+    public static String archiveTable(YearMonth ym) {
+        return TABLE + "_" + partitionName(ym);
+    }
+}
@@ -0,0 +1,75 @@
+package app.dao;
+
+/**
+ * Immutable snapshot of {@link ConnectionPool} statistics.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final int total;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long avgBorrowMicros;
+    private final long maxBorrowMicros;
+    private final long timeouts;
+    private final long created;
+    private final long evicted;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStats(int active, int idle, int waiters, int total, int maxSize,
+                     long borrowCount, long avgBorrowMicros, long maxBorrowMicros,
+                     long timeouts, long created, long evicted,
+                     long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.avgBorrowMicros = avgBorrowMicros;
+        this.maxBorrowMicros = maxBorrowMicros;
+        this.timeouts = timeouts;
+        this.created = created;
+        this.evicted = evicted;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getWaiters() { return waiters; }
+    public int getTotal() { return total; }
+    public int getMaxSize() { return maxSize; }
+    public long getBorrowCount() { return borrowCount; }
+    public long getAvgBorrowMicros() { return avgBorrowMicros; }
+    public long getMaxBorrowMicros() { return maxBorrowMicros; }
+    public long getTimeouts() { return timeouts; }
+    public long getCreated() { return created; }
+    public long getEvicted() { return evicted; }
+    public long getStatementCacheHits() { return statementCacheHits; }
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+    public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", waiters=" + waiters +
+                ", total=" + total + "/" + maxSize +
+                ", borrows=" + borrowCount +
+                ", avgBorrowUs=" + avgBorrowMicros +
+                ", maxBorrowUs=" + maxBorrowMicros +
+                ", timeouts=" + timeouts +
+                ", created=" + created +
+                ", evicted=" + evicted +
+                ", stmtHits=" + statementCacheHits +
+                ", stmtMisses=" + statementCacheMisses +
+                ", stmtEvictions=" + statementCacheEvictions +
+                '}';
+    }
+}
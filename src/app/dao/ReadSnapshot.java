@@ -0,0 +1,122 @@
+package app.dao;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last result the database returned for each read of the journaled stores,
+ * per user, so the same reads can still be answered while it is unreachable.
+ *
+ * Results hold stored data only; the journaled stores merge the pending
+ * entries on top, online or not. A user's results are dropped whenever rows
+ * of that user are stored (a direct write or a replay), since they no longer
+ * match the database. A read that is not in the snapshot is answered with an
+ * empty stored part and flagged as partial.
+ */
+final class ReadSnapshot {
+
+    /** The database part of a read. */
+    @FunctionalInterface
+    interface StoredRead<T> {
+        T read() throws SQLException;
+    }
+
+    private final int maxEntries;
+
+    // user id -> read key -> result, least recently used first
+    private final Map<Integer, LinkedHashMap<String, Object>> results = new HashMap<>();
+    // Bumped when a user's results are dropped; a read that started before is not kept
+    private final Map<Integer, Long> versions = new HashMap<>();
+    private boolean offline;
+    private boolean partial;
+
+    /**
+     * @param maxEntries Results kept per user; the least recently used are dropped beyond that
+     */
+    ReadSnapshot(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Run a read against the database and keep its result, or answer it from
+     * the snapshot if the database cannot be reached. The result must not be
+     * modified by the caller, as it may be returned again.
+     *
+     * @param missing Stored part to use if the database is unreachable and the read was never made
+     */
+    <T> T read(int userId, String key, StoredRead<T> read, T missing) throws SQLException {
+        long version;
+        synchronized (this) {
+            version = versions.getOrDefault(userId, 0L);
+        }
+        T value;
+        try {
+            value = read.read();
+        } catch (SQLException e) {
+            if (!OfflineJournal.isConnectionFailure(e)) {
+                throw e;
+            }
+            return offline(userId, key, missing);
+        }
+        synchronized (this) {
+            if (versions.getOrDefault(userId, 0L) == version) {
+                LinkedHashMap<String, Object> entries = results.computeIfAbsent(userId, id -> lruMap());
+                entries.put(key, value);
+            }
+            offline = false;
+            partial = false;
+        }
+        return value;
+    }
+
+    /**
+     * Answer a read from the snapshot, e.g. after its database call failed
+     * with a connection failure.
+     *
+     * @param missing Stored part to use if the read was never made
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T> T offline(int userId, String key, T missing) {
+        if (!offline) {
+            System.out.println("Offline journal: database unreachable, reads are answered from the local snapshot");
+            offline = true;
+        }
+        LinkedHashMap<String, Object> entries = results.get(userId);
+        if (entries != null && entries.containsKey(key)) {
+            partial = false;
+            return (T) entries.get(key);
+        }
+        partial = true;
+        return missing;
+    }
+
+    /**
+     * Drop a user's results, e.g. after rows of that user were stored.
+     */
+    synchronized void invalidate(int userId) {
+        results.remove(userId);
+        versions.merge(userId, 1L, Long::sum);
+    }
+
+    /**
+     * @return true if the latest read answered offline was not in the snapshot,
+     *         so it showed the pending changes only
+     */
+    synchronized boolean isPartial() {
+        return partial;
+    }
+
+    private LinkedHashMap<String, Object> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+}
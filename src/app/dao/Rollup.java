@@ -0,0 +1,172 @@
+package app.dao;
+
+import app.model.Transaction;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A pre-aggregated table holding SUM(amount) and COUNT(*) of the transactions
+ * per (user, type, period, category).
+ *
+ * {@link TransactionDAO} applies every insert and delete to all rollups on the
+ * same connection and in the same database transaction as the row change, so
+ * total and report queries can read a handful of rollup rows instead of
+ * scanning raw transactions.
+ */
+public final class Rollup {
+
+    // "YYYY-MM" of a DATE column named `date` (transactions and the daily rollup)
+    private static final String MONTH_OF_DATE = "SUBSTRING(CAST(`date` AS CHAR(10)), 1, 7)";
+
+    /** SpendMate_daily_totals: one row per (user, type, date, category). */
+    public static final Rollup DAILY = new Rollup(DBConnection.TABLE_DAILY_TOTALS, "date", "DATE",
+            Transaction::getLocalDate, "`date`", MONTH_OF_DATE);
+
+    /** SpendMate_monthly_totals: one row per (user, type, "YYYY-MM", category). */
+    public static final Rollup MONTHLY = new Rollup(DBConnection.TABLE_MONTHLY_TOTALS, "year_month", "CHAR(7)",
+            t -> YearMonth.from(t.getLocalDate()).toString(), MONTH_OF_DATE, "`year_month`");
+
+    static final List<Rollup> ALL = List.of(DAILY, MONTHLY);
+
+    private final String table;
+    private final String periodColumn;
+    private final String periodType;
+    private final Function<Transaction, Object> periodOf;
+    private final String periodExpression;
+    private final String monthExpression;
+
+    private Rollup(String table, String periodColumn, String periodType,
+                   Function<Transaction, Object> periodOf, String periodExpression, String monthExpression) {
+        this.table = table;
+        this.periodColumn = periodColumn;
+        this.periodType = periodType;
+        this.periodOf = periodOf;
+        this.periodExpression = periodExpression;
+        this.monthExpression = monthExpression;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Add (sign 1) or remove (sign -1) a user's transactions to/from every rollup.
+     * Must run inside the caller's database transaction.
+     */
+    static void applyAll(Connection conn, int userId, Iterable<Transaction> transactions, int sign) throws SQLException {
+        for (Rollup rollup : ALL) {
+            rollup.apply(conn, userId, transactions, sign);
+        }
+    }
+
+    /**
+     * Recompute every rollup from the transactions table in one transaction.
+     * Used for backfilling and after bulk changes made outside {@link TransactionDAO}.
+     * Months moved to archive files ({@link ArchiveManager}) keep their rollup rows.
+     *
+     * @return Number of rollup rows written
+     */
+    public static int rebuildAll(Connection conn) throws SQLException {
+        String notArchived = " NOT IN (SELECT `year_month` FROM " + DBConnection.TABLE_ARCHIVED_MONTHS + ")";
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            int rows = 0;
+            for (Rollup rollup : ALL) {
+                stmt.executeUpdate("DELETE FROM " + rollup.table + " WHERE " + rollup.monthExpression + notArchived);
+                rows += stmt.executeUpdate(rollup.backfillSql(" WHERE " + MONTH_OF_DATE + notArchived));
+            }
+            conn.commit();
+            return rows;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Remove one month from every rollup, for all users. Used when a whole
+     * month of transactions leaves the table at once (partition expiry).
+     */
+    static void deleteMonth(Connection conn, YearMonth ym) throws SQLException {
+        // Boundary rows map the month's first and last day onto each rollup's period column
+        Transaction first = new Transaction(0, null, ym.atDay(1), null, 0, null);
+        Transaction last = new Transaction(0, null, ym.atEndOfMonth(), null, 0, null);
+        for (Rollup rollup : ALL) {
+            String sql = "DELETE FROM " + rollup.table +
+                         " WHERE `" + rollup.periodColumn + "` >= ? AND `" + rollup.periodColumn + "` <= ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setObject(1, rollup.periodOf.apply(first));
+                pstmt.setObject(2, rollup.periodOf.apply(last));
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Rows are grouped first, so a bulk insert costs one upsert per group.
+     */
+    void apply(Connection conn, int userId, Iterable<Transaction> transactions, int sign) throws SQLException {
+        Map<String, long[]> groups = new LinkedHashMap<>();
+        Map<String, Transaction> keys = new LinkedHashMap<>();
+        for (Transaction t : transactions) {
+            String key = t.getType() + "|" + periodOf.apply(t) + "|" + t.getCategory();
+            long[] delta = groups.computeIfAbsent(key, k -> new long[2]);
+            delta[0] += (long) sign * t.getAmount();
+            delta[1] += sign;
+            keys.putIfAbsent(key, t);
+        }
+        try (PreparedStatement upsert = conn.prepareStatement(upsertSql())) {
+            for (Map.Entry<String, long[]> g : groups.entrySet()) {
+                Transaction t = keys.get(g.getKey());
+                upsert.setInt(1, userId);
+                upsert.setString(2, t.getType());
+                upsert.setObject(3, periodOf.apply(t));
+                upsert.setString(4, t.getCategory());
+                upsert.setLong(5, g.getValue()[0]);
+                upsert.setLong(6, g.getValue()[1]);
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+        }
+        if (sign < 0) {
+            // Drop groups whose last transaction was deleted
+            try (PreparedStatement prune = conn.prepareStatement(pruneSql())) {
+                for (Transaction t : keys.values()) {
+                    prune.setInt(1, userId);
+                    prune.setString(2, t.getType());
+                    prune.setObject(3, periodOf.apply(t));
+                    prune.setString(4, t.getCategory());
+                    prune.addBatch();
+                }
+                prune.executeBatch();
+            }
+        }
+    }
+
+    private String backfillSql(String where) {
+        return "INSERT INTO " + table + "(`user_id`, `type`, `" + periodColumn + "`, `category`, `amount_sum`, `row_count`) " +
+               "SELECT `user_id`, `type`, " + periodExpression + ", `category`, SUM(`amount`), COUNT(*) FROM " +
+               DBConnection.TABLE_TRANSACTIONS + where + " GROUP BY `user_id`, `type`, " + periodExpression + ", `category`";
+    }
+
+    private String upsertSql() {
+        return "INSERT INTO " + table + "(`user_id`, `type`, `" + periodColumn + "`, `category`, `amount_sum`, `row_count`) " +
+               "VALUES(?,?,?,?,?,?) ON DUPLICATE KEY UPDATE `amount_sum` = `amount_sum` + VALUES(`amount_sum`), " +
+               "`row_count` = `row_count` + VALUES(`row_count`)";
+    }
+
+    private String pruneSql() {
+        return "DELETE FROM " + table + " WHERE `user_id`=? AND `type`=? AND `" + periodColumn + "`=? " +
+               "AND `category`=? AND `row_count` <= 0";
+    }
+}
@@ -0,0 +1,437 @@
+package app.dao;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Versioned schema bootstrap for SpendMate.
+ *
+ * The applied schema version is stored in {@code SpendMate_schema_version}.
+ * On startup a single metadata query compares it with {@link #SCHEMA_VERSION};
+ * DDL only runs when the database is behind. Bootstrap can run in the
+ * background ({@link #initializeAsync()}) so the UI does not wait on it.
+ *
+ * Mode is chosen with {@code -Dspendmate.schema.bootstrap}:
+ * - {@code async} (default): run in the background, DAO calls wait for it
+ * - {@code sync}: run on the calling thread
+ * - {@code skip}: assume the schema is already current
+ *
+ * @author SpendMate Team
+ */
+public class SchemaManager {
+
+    /** Schema version this build expects. Bump when adding a migration step. */
+    public static final int SCHEMA_VERSION = 7;
+
+    public static final String TABLE_SCHEMA_VERSION = "SpendMate_schema_version";
+
+    // "YYYY-MM" of the transactions' DATE column, as used by the migrations
+    private static final String MONTH_OF_DATE = "SUBSTRING(CAST(`date` AS CHAR(10)), 1, 7)";
+
+    private static final String BOOTSTRAP_MODE = System.getProperty("spendmate.schema.bootstrap", "async");
+
+    private static volatile CompletableFuture<Void> bootstrap;
+
+    private SchemaManager() {}
+
+    /**
+     * Start schema bootstrap in the background (once per JVM).
+     *
+     * @return Future completed when the schema is current
+     */
+    public static CompletableFuture<Void> initializeAsync() {
+        CompletableFuture<Void> f = bootstrap;
+        if (f == null) {
+            synchronized (SchemaManager.class) {
+                f = bootstrap;
+                if (f == null) {
+                    if ("skip".equalsIgnoreCase(BOOTSTRAP_MODE)) {
+                        f = CompletableFuture.completedFuture(null);
+                    } else if ("sync".equalsIgnoreCase(BOOTSTRAP_MODE)) {
+                        f = new CompletableFuture<>();
+                        runBootstrap(f);
+                    } else {
+                        CompletableFuture<Void> async = new CompletableFuture<>();
+                        Thread t = new Thread(() -> runBootstrap(async), "spendmate-schema-bootstrap");
+                        t.setDaemon(true);
+                        t.start();
+                        f = async;
+                    }
+                    bootstrap = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    /**
+     * Block until a bootstrap started by {@link #initializeAsync()} has finished.
+     * Returns immediately when no bootstrap was started or it already completed.
+     * A bootstrap that failed (e.g. the server was unreachable at startup) is
+     * retried by the next caller.
+     *
+     * @throws SQLException if the bootstrap failed
+     */
+    static void awaitReady() throws SQLException {
+        CompletableFuture<Void> f = bootstrap;
+        if (f == null || (f.isDone() && !f.isCompletedExceptionally())) {
+            return;
+        }
+        if (f.isCompletedExceptionally()) {
+            f = retryBootstrap(f);
+        }
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for schema initialization", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Database schema initialization failed", e.getCause());
+        }
+    }
+
+    private static synchronized CompletableFuture<Void> retryBootstrap(CompletableFuture<Void> failed) {
+        if (bootstrap == failed) {
+            CompletableFuture<Void> retry = new CompletableFuture<>();
+            bootstrap = retry;
+            runBootstrap(retry);
+        }
+        return bootstrap;
+    }
+
+    private static void runBootstrap(CompletableFuture<Void> future) {
+        try {
+            ensureSchema();
+            future.complete(null);
+        } catch (Exception e) {
+            System.err.println("Error initializing database: " + e.getMessage());
+            e.printStackTrace();
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Bring the schema up to {@link #SCHEMA_VERSION}, skipping all DDL when it
+     * is already current.
+     *
+     * @throws SQLException if a migration step fails
+     */
+    public static synchronized void ensureSchema() throws SQLException {
+        try (Connection conn = DBConnection.borrowForBootstrap()) {
+            ensureSchema(conn);
+        }
+    }
+
+    /**
+     * Bring the schema reachable through the given connection up to
+     * {@link #SCHEMA_VERSION}. Used directly by tools that work on a backend
+     * other than the configured one.
+     *
+     * @param conn Connection to the target database
+     * @throws SQLException if a migration step fails
+     */
+    public static void ensureSchema(Connection conn) throws SQLException {
+        int current = readVersion(conn);
+        if (current >= SCHEMA_VERSION) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + TABLE_SCHEMA_VERSION + " (" +
+                    "`version` INT NOT NULL PRIMARY KEY, " +
+                    "`applied_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+            for (int v = current + 1; v <= SCHEMA_VERSION; v++) {
+                migrateTo(v, stmt);
+                stmt.executeUpdate("INSERT INTO " + TABLE_SCHEMA_VERSION + "(`version`) VALUES(" + v + ")");
+            }
+        }
+        System.out.println("Database schema migrated from version " + current + " to " + SCHEMA_VERSION);
+        System.out.println("Tables: " + DBConnection.TABLE_TRANSACTIONS + ", " + DBConnection.TABLE_BUDGETS
+                + ", " + DBConnection.TABLE_USERS + ", " + DBConnection.TABLE_DAILY_TOTALS
+                + ", " + DBConnection.TABLE_MONTHLY_TOTALS + ", " + DBConnection.TABLE_ARCHIVED_MONTHS);
+    }
+
+    /**
+     * Read the applied schema version with one metadata query.
+     *
+     * @return The applied version, or 0 if the version table does not exist yet
+     * @throws SQLException if the version cannot be read (e.g. the connection failed);
+     *         never taken to mean an empty database
+     */
+    public static int readVersion(Connection conn) throws SQLException {
+        if (!tableExists(conn, TABLE_SCHEMA_VERSION)) {
+            return 0;
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(`version`) FROM " + TABLE_SCHEMA_VERSION)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void migrateTo(int version, Statement stmt) throws SQLException {
+        switch (version) {
+            case 1:
+                createBaseTables(stmt);
+                break;
+            case 2:
+                convertDateColumn(stmt);
+                break;
+            case 3:
+                createDailyTotals(stmt);
+                break;
+            case 4:
+                createMonthlyTotals(stmt);
+                break;
+            case 5:
+                partitionByUser(stmt);
+                break;
+            case 6:
+                createArchiveRegistry(stmt);
+                break;
+            case 7:
+                addClientKey(stmt);
+                break;
+            default:
+                throw new SQLException("Unknown schema version: " + version);
+        }
+    }
+
+    /**
+     * Version 1: transactions, budgets and users tables with their indexes.
+     * Uses IF NOT EXISTS so databases created before versioning upgrade cleanly.
+     */
+    private static void createBaseTables(Statement stmt) throws SQLException {
+        // Create transactions table with proper constraints (MySQL syntax)
+        String sqlTx = "CREATE TABLE IF NOT EXISTS " + DBConnection.TABLE_TRANSACTIONS + " (" +
+                "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
+                "`type` VARCHAR(10) NOT NULL, " +
+                "`date` VARCHAR(10) NOT NULL, " +
+                "`category` VARCHAR(50) NOT NULL, " +
+                "`amount` INT NOT NULL, " +
+                "`memo` VARCHAR(255), " +
+                "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+        // Create budgets table with unique constraint on year_month (MySQL syntax)
+        String sqlBudget = "CREATE TABLE IF NOT EXISTS " + DBConnection.TABLE_BUDGETS + " (" +
+                "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
+                "`year_month` VARCHAR(7) NOT NULL UNIQUE, " +
+                "`limit_amt` INT NOT NULL, " +
+                "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+        // Create users table for authentication
+        String sqlUsers = "CREATE TABLE IF NOT EXISTS " + DBConnection.TABLE_USERS + " (" +
+                "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
+                "`username` VARCHAR(50) NOT NULL UNIQUE, " +
+                "`password` VARCHAR(64) NOT NULL, " +
+                "`email` VARCHAR(100) NOT NULL UNIQUE, " +
+                "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+        stmt.execute(sqlTx);
+        stmt.execute(sqlBudget);
+        stmt.execute(sqlUsers);
+
+        // Create indexes for faster queries
+        createIndex(stmt, "CREATE INDEX idx_spendmate_tx_type_date ON " + DBConnection.TABLE_TRANSACTIONS + "(`type`, `date`)");
+        createIndex(stmt, "CREATE INDEX idx_spendmate_tx_category ON " + DBConnection.TABLE_TRANSACTIONS + "(`category`)");
+        createIndex(stmt, "CREATE INDEX idx_spendmate_tx_date ON " + DBConnection.TABLE_TRANSACTIONS + "(`date`)");
+    }
+
+    /**
+     * Version 2: store transaction dates as a native DATE instead of VARCHAR(10),
+     * so month and period filters are plain index range scans.
+     * Existing rows must hold valid "YYYY-MM-DD" values.
+     */
+    private static void convertDateColumn(Statement stmt) throws SQLException {
+        stmt.execute("ALTER TABLE " + DBConnection.TABLE_TRANSACTIONS + " MODIFY `date` DATE NOT NULL");
+    }
+
+    /**
+     * Version 3: per (type, date, category) rollup of transaction amounts,
+     * backfilled from the existing rows. See {@link Rollup#DAILY}.
+     */
+    private static void createDailyTotals(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS " + DBConnection.TABLE_DAILY_TOTALS + " (" +
+                "`type` VARCHAR(10) NOT NULL, " +
+                "`date` DATE NOT NULL, " +
+                "`category` VARCHAR(50) NOT NULL, " +
+                "`amount_sum` BIGINT NOT NULL, " +
+                "`row_count` INT NOT NULL, " +
+                "PRIMARY KEY (`type`, `date`, `category`)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        createIndex(stmt, "CREATE INDEX idx_spendmate_daily_date ON " + DBConnection.TABLE_DAILY_TOTALS + "(`date`)");
+        stmt.executeUpdate("DELETE FROM " + DBConnection.TABLE_DAILY_TOTALS);
+        // Frozen at this version's columns; version 5 rebuilds the table keyed by user
+        stmt.executeUpdate("INSERT INTO " + DBConnection.TABLE_DAILY_TOTALS +
+                "(`type`, `date`, `category`, `amount_sum`, `row_count`) " +
+                "SELECT `type`, `date`, `category`, SUM(`amount`), COUNT(*) FROM " + DBConnection.TABLE_TRANSACTIONS +
+                " GROUP BY `type`, `date`, `category`");
+    }
+
+    /**
+     * Version 4: per (type, month, category) rollup for category reports,
+     * backfilled from the existing rows. See {@link Rollup#MONTHLY}.
+     */
+    private static void createMonthlyTotals(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS " + DBConnection.TABLE_MONTHLY_TOTALS + " (" +
+                "`type` VARCHAR(10) NOT NULL, " +
+                "`year_month` CHAR(7) NOT NULL, " +
+                "`category` VARCHAR(50) NOT NULL, " +
+                "`amount_sum` BIGINT NOT NULL, " +
+                "`row_count` INT NOT NULL, " +
+                "PRIMARY KEY (`type`, `year_month`, `category`)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        stmt.executeUpdate("DELETE FROM " + DBConnection.TABLE_MONTHLY_TOTALS);
+        // Frozen at this version's columns; version 5 rebuilds the table keyed by user
+        stmt.executeUpdate("INSERT INTO " + DBConnection.TABLE_MONTHLY_TOTALS +
+                "(`type`, `year_month`, `category`, `amount_sum`, `row_count`) " +
+                "SELECT `type`, " + MONTH_OF_DATE + ", `category`, SUM(`amount`), COUNT(*) FROM " +
+                DBConnection.TABLE_TRANSACTIONS + " GROUP BY `type`, " + MONTH_OF_DATE + ", `category`");
+    }
+
+    /**
+     * Version 5: per-user data. Adds {@code user_id} to transactions (with
+     * (user_id, date) and (user_id, type, date) indexes), rebuilds budgets with
+     * UNIQUE(user_id, year_month) and rebuilds both rollups keyed by user first.
+     * Rows written before users existed are assigned to the first registered user.
+     *
+     * DDL commits implicitly, so every step checks what an interrupted earlier
+     * run already did and the whole version can be re-run.
+     */
+    private static void partitionByUser(Statement stmt) throws SQLException {
+        String owner = "COALESCE((SELECT MIN(`id`) FROM " + DBConnection.TABLE_USERS + "), 0)";
+        String tx = DBConnection.TABLE_TRANSACTIONS;
+        if (!columnExists(stmt, tx, "user_id")) {
+            stmt.execute("ALTER TABLE " + tx + " ADD COLUMN `user_id` INT NOT NULL DEFAULT 0");
+        }
+        stmt.executeUpdate("UPDATE " + tx + " SET `user_id` = " + owner + " WHERE `user_id` = 0");
+        createIndex(stmt, "CREATE INDEX idx_spendmate_tx_user_date ON " + tx + "(`user_id`, `date`)");
+        createIndex(stmt, "CREATE INDEX idx_spendmate_tx_user_type_date ON " + tx + "(`user_id`, `type`, `date`)");
+
+        // The old UNIQUE(year_month) index is unnamed, so copy into a new table instead of altering it
+        String budgets = DBConnection.TABLE_BUDGETS;
+        String rebuilt = budgets + "_v5";
+        String previous = budgets + "_v4";
+        if (!tableExists(stmt, budgets)) {
+            // Interrupted between the two renames below (non-MySQL backends): finish the swap
+            stmt.execute("ALTER TABLE " + rebuilt + " RENAME TO " + budgets);
+        } else if (!columnExists(stmt, budgets, "user_id")) {
+            // Left over from an interrupted run at most; the old table still holds every budget
+            stmt.execute("DROP TABLE IF EXISTS " + rebuilt);
+            stmt.execute("CREATE TABLE " + rebuilt + " (" +
+                    "`id` INT PRIMARY KEY AUTO_INCREMENT, " +
+                    "`user_id` INT NOT NULL, " +
+                    "`year_month` VARCHAR(7) NOT NULL, " +
+                    "`limit_amt` INT NOT NULL, " +
+                    "`created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "UNIQUE KEY uk_spendmate_budget_user_month (`user_id`, `year_month`)" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+            stmt.executeUpdate("INSERT INTO " + rebuilt + "(`id`, `user_id`, `year_month`, `limit_amt`, `created_at`) " +
+                    "SELECT `id`, " + owner + ", `year_month`, `limit_amt`, `created_at` FROM " + budgets);
+            if (PartitionMaintenance.isSupported(stmt.getConnection())) {
+                // One atomic statement: there is always a table named budgets
+                stmt.execute("RENAME TABLE " + budgets + " TO " + previous + ", " + rebuilt + " TO " + budgets);
+            } else {
+                stmt.execute("ALTER TABLE " + budgets + " RENAME TO " + previous);
+                stmt.execute("ALTER TABLE " + rebuilt + " RENAME TO " + budgets);
+            }
+        }
+        stmt.execute("DROP TABLE IF EXISTS " + previous);
+
+        // Rollup DDL and backfill frozen at this version (see Rollup for the current shape);
+        // recomputed from the transactions, so safe to repeat
+        rebuildUserRollup(stmt, DBConnection.TABLE_DAILY_TOTALS, "date", "DATE", "`date`");
+        rebuildUserRollup(stmt, DBConnection.TABLE_MONTHLY_TOTALS, "year_month", "CHAR(7)", MONTH_OF_DATE);
+    }
+
+    private static void rebuildUserRollup(Statement stmt, String table, String periodColumn, String periodType,
+                                          String periodExpression) throws SQLException {
+        stmt.execute("DROP TABLE IF EXISTS " + table);
+        stmt.execute("CREATE TABLE " + table + " (" +
+                "`user_id` INT NOT NULL, " +
+                "`type` VARCHAR(10) NOT NULL, " +
+                "`" + periodColumn + "` " + periodType + " NOT NULL, " +
+                "`category` VARCHAR(50) NOT NULL, " +
+                "`amount_sum` BIGINT NOT NULL, " +
+                "`row_count` INT NOT NULL, " +
+                "PRIMARY KEY (`user_id`, `type`, `" + periodColumn + "`, `category`)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        stmt.executeUpdate("INSERT INTO " + table +
+                "(`user_id`, `type`, `" + periodColumn + "`, `category`, `amount_sum`, `row_count`) " +
+                "SELECT `user_id`, `type`, " + periodExpression + ", `category`, SUM(`amount`), COUNT(*) FROM " +
+                DBConnection.TABLE_TRANSACTIONS + " GROUP BY `user_id`, `type`, " + periodExpression + ", `category`");
+    }
+
+    /**
+     * Version 6: registry of months moved to archive files. See {@link ArchiveManager}.
+     */
+    private static void createArchiveRegistry(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS " + DBConnection.TABLE_ARCHIVED_MONTHS + " (" +
+                "`year_month` CHAR(7) NOT NULL PRIMARY KEY, " +
+                "`file_name` VARCHAR(100) NOT NULL, " +
+                "`row_count` INT NOT NULL, " +
+                "`sha256` CHAR(64) NOT NULL, " +
+                "`archived_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+    }
+
+    /**
+     * Version 7: optional client-generated idempotency key on transactions, so
+     * a replayed write-behind journal never inserts a row twice. The unique key
+     * includes `date` so it stays valid on a date-partitioned table.
+     * Both steps are skipped when already applied, so an interrupted run can be repeated.
+     */
+    private static void addClientKey(Statement stmt) throws SQLException {
+        if (!columnExists(stmt, DBConnection.TABLE_TRANSACTIONS, "client_key")) {
+            stmt.execute("ALTER TABLE " + DBConnection.TABLE_TRANSACTIONS + " ADD COLUMN `client_key` VARCHAR(36) NULL");
+        }
+        createIndex(stmt, "CREATE UNIQUE INDEX uk_spendmate_tx_client_key ON " + DBConnection.TABLE_TRANSACTIONS +
+                "(`client_key`, `date`)");
+    }
+
+    private static boolean tableExists(Statement stmt, String table) throws SQLException {
+        return tableExists(stmt.getConnection(), table);
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), null, pattern(meta, table), new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static boolean columnExists(Statement stmt, String table, String column) throws SQLException {
+        Connection conn = stmt.getConnection();
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, pattern(meta, table), pattern(meta, column))) {
+            return rs.next();
+        }
+    }
+
+    // Metadata search pattern matching exactly the name, in the case the database stores it
+    private static String pattern(DatabaseMetaData meta, String name) throws SQLException {
+        if (meta.storesUpperCaseIdentifiers()) {
+            name = name.toUpperCase(Locale.ROOT);
+        } else if (meta.storesLowerCaseIdentifiers()) {
+            name = name.toLowerCase(Locale.ROOT);
+        }
+        String escape = meta.getSearchStringEscape();
+        return name.replace("_", escape + "_").replace("%", escape + "%");
+    }
+
+    private static void createIndex(Statement stmt, String sql) {
+        // MySQL에서 인덱스가 이미 존재하면 예외 발생하므로 개별 처리
+        try {
+            stmt.execute(sql);
+        } catch (SQLException ignored) {
+        }
+    }
+}
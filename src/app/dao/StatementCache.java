@@ -0,0 +1,190 @@
+package app.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * LRU cache of prepared statements attached to one pooled physical connection,
+ * keyed by SQL text (and the generated-keys flag).
+ *
+ * Closing a cached statement only clears its parameters and open result set;
+ * the underlying (server-side) statement stays prepared for the next caller
+ * that asks for the same SQL on this connection.
+ */
+final class StatementCache {
+
+    private final Connection physical;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get a logical statement for the given SQL, reusing a cached physical
+     * statement when one is available and not already checked out.
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys,
+                              Connection connectionHandle, BooleanSupplier connectionClosed) throws SQLException {
+        String key = autoGeneratedKeys + "|" + sql;
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            hits.increment();
+        } else if (entry != null) {
+            // Same SQL already open on this connection (nested use): hand out an uncached statement
+            misses.increment();
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        } else {
+            misses.increment();
+            entry = new Entry(physical.prepareStatement(sql, autoGeneratedKeys));
+            entries.put(key, entry);
+            evictOverflow();
+        }
+        entry.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new Logical(entry, connectionHandle, connectionClosed));
+    }
+
+    /**
+     * Mark every statement as available again. Called when the connection
+     * goes back to the pool; handles still held by callers become unusable.
+     */
+    void releaseAll() {
+        for (Entry entry : entries.values()) {
+            if (entry.inUse) {
+                entry.reset();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest.inUse) {
+                continue;
+            }
+            it.remove();
+            evictions.increment();
+            try {
+                eldest.statement.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        void reset() {
+            inUse = false;
+            try {
+                ResultSet rs = statement.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Statement handle given to callers; close() checks the physical statement back in.
+     */
+    private static final class Logical implements InvocationHandler {
+        private final Entry entry;
+        private final Connection connectionHandle;
+        private final BooleanSupplier connectionClosed;
+        private boolean closed;
+
+        Logical(Entry entry, Connection connectionHandle, BooleanSupplier connectionClosed) {
+            this.entry = entry;
+            this.connectionHandle = connectionHandle;
+            this.connectionClosed = connectionClosed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (!connectionClosed.getAsBoolean()) {
+                            entry.reset();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || connectionClosed.getAsBoolean();
+                case "getConnection":
+                    return connectionHandle;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.statement + "]";
+                default:
+                    break;
+            }
+            if (closed || connectionClosed.getAsBoolean()) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    static boolean isCacheable(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName()) || args == null) {
+            return false;
+        }
+        return args.length == 1
+                || (args.length == 2 && args[1] instanceof Integer
+                    && ((Integer) args[1] == Statement.RETURN_GENERATED_KEYS
+                        || (Integer) args[1] == Statement.NO_GENERATED_KEYS));
+    }
+}
@@ -1,149 +1,615 @@
 package app.dao;
 
+import app.model.CategoryBreakdown;
+import app.model.DailyCategoryTotal;
 import app.model.Transaction;
+import app.model.TransactionPage;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class TransactionDAO {
+/**
+ * JDBC transaction store. Every read and write is scoped to the logged-in
+ * user ({@link UserContext}); the (user_id, ...) indexes keep one user's
+ * queries from touching other users' rows.
+ */
+public class TransactionDAO implements TransactionStore {
 
     private static final String TABLE = DBConnection.TABLE_TRANSACTIONS;
+    // Totals are answered from the rollups maintained alongside every write
+    private static final String ROLLUP = Rollup.DAILY.getTable();
+    private static final String MONTHLY_ROLLUP = Rollup.MONTHLY.getTable();
+    private static final String INSERT_SQL =
+            "INSERT INTO " + TABLE + "(`user_id`, `type`, `date`, `category`, `amount`, `memo`, `client_key`) VALUES(?,?,?,?,?,?,?)";
 
+
+    // Rows fetched per cursor round trip by the streaming APIs (-Dspendmate.stream.fetchSize)
+    private static final int STREAM_FETCH_SIZE = Integer.getInteger("spendmate.stream.fetchSize", 1000);
+
+    // Rows per executeBatch() round trip for insertAll (-Dspendmate.batch.size)
+    private static final int DEFAULT_BATCH_SIZE = Integer.getInteger("spendmate.batch.size", 500);
+
+    // (date, id): the order of every period listing
+    private static final Comparator<Transaction> PERIOD_ORDER =
+            Comparator.comparing(Transaction::getLocalDate).thenComparingInt(Transaction::getId);
+
+    private final int batchSize;
+    private final ArchiveManager archive = new ArchiveManager();
+
+    public TransactionDAO() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public TransactionDAO(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Run work on one pooled connection inside a database transaction.
+     */
+    private static <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
     public void insert(Transaction t) throws SQLException {
-        String sql = "INSERT INTO " + TABLE + "(`type`, `date`, `category`, `amount`, `memo`) VALUES(?,?,?,?,?)";
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        int userId = UserContext.requireUserId();
+        // Row and rollup change commit together
+        int id = inTransaction(conn -> {
+            int generated = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                bindInsert(pstmt, userId, t);
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        generated = keys.getInt(1);
+                    }
+                }
+            }
+            Rollup.applyAll(conn, userId, List.of(t), 1);
+            return generated;
+        });
+        t.setId(id);
+    }
 
-            pstmt.setString(1, t.getType());
-            pstmt.setString(2, t.getDate());
-            pstmt.setString(3, t.getCategory());
-            pstmt.setInt(4, t.getAmount());
-            pstmt.setString(5, t.getMemo());
-            pstmt.executeUpdate();
+    @Override
+    public List<Integer> insertAll(Collection<Transaction> transactions) throws SQLException {
+        List<Integer> ids = new ArrayList<>(transactions.size());
+        if (transactions.isEmpty()) {
+            return ids;
+        }
+        int userId = UserContext.requireUserId();
+        List<Transaction> pending = new ArrayList<>(batchSize);
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Transaction t : transactions) {
+                    bindInsert(pstmt, userId, t);
+                    pstmt.addBatch();
+                    pending.add(t);
+                    if (pending.size() == batchSize) {
+                        flushBatch(pstmt, pending, ids);
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    flushBatch(pstmt, pending, ids);
+                }
+                Rollup.applyAll(conn, userId, transactions, 1);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                // setAutoCommit(true) in finally would otherwise commit the partial batch
+                conn.rollback();
+                for (Transaction t : transactions) {
+                    t.setId(0);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
+        return ids;
     }
 
-    public void delete(int id) throws SQLException {
-        String sql = "DELETE FROM " + TABLE + " WHERE id=?";
+    private static void flushBatch(PreparedStatement pstmt, List<Transaction> pending, List<Integer> ids) throws SQLException {
+        pstmt.executeBatch();
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            for (Transaction t : pending) {
+                if (!keys.next()) {
+                    throw new SQLException("Driver returned fewer generated keys than inserted rows");
+                }
+                t.setId(keys.getInt(1));
+                ids.add(t.getId());
+            }
+        }
+        pending.clear();
+    }
+
+    private static void bindInsert(PreparedStatement pstmt, int userId, Transaction t) throws SQLException {
+        pstmt.setInt(1, userId);
+        pstmt.setString(2, t.getType());
+        pstmt.setObject(3, t.getLocalDate());
+        pstmt.setString(4, t.getCategory());
+        pstmt.setInt(5, t.getAmount());
+        pstmt.setString(6, t.getMemo());
+        pstmt.setString(7, t.getClientKey());
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        int userId = UserContext.requireUserId();
+        return inTransaction(conn -> {
+            Transaction row;
+            String sql = "SELECT " + TransactionProjection.LIST.getColumns() + " FROM " + TABLE +
+                         " WHERE `id`=? AND `user_id`=? FOR UPDATE";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                pstmt.setInt(2, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    row = new TransactionRowMapper(rs).map(rs);
+                }
+            }
+            return deleteRow(conn, userId, row);
+        });
+    }
+
+    // Delete a row locked by the caller's transaction and take it out of the user's rollup
+    private static boolean deleteRow(Connection conn, int userId, Transaction row) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE id=?")) {
+            pstmt.setInt(1, row.getId());
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        Rollup.applyAll(conn, userId, List.of(row), -1);
+        return true;
+    }
+
+    @Override
+    public Transaction findById(int id) throws SQLException {
+        String sql = "SELECT " + TransactionProjection.DETAIL.getColumns() + " FROM " + TABLE +
+                     " WHERE `id`=? AND `user_id`=?";
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+            pstmt.setInt(2, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new TransactionRowMapper(rs).map(rs) : null;
+            }
         }
     }
 
+    @Override
+    public Map<String, Integer> findIdsByClientKeys(Collection<String> clientKeys) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        if (clientKeys.isEmpty()) {
+            return ids;
+        }
+        String sql = "SELECT `client_key`, `id` FROM " + TABLE + " WHERE `user_id`=? AND `client_key` IN (" +
+                     String.join(",", Collections.nCopies(clientKeys.size(), "?")) + ")";
+        int userId = UserContext.requireUserId();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setInt(i++, userId);
+            for (String key : clientKeys) {
+                pstmt.setString(i++, key);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ids.put(rs.getString("client_key"), rs.getInt("id"));
+            }
+        }
+        return ids;
+    }
+
+    // One user's period listing in (date, id) order with the given columns
+    private static String periodSql(TransactionProjection projection) {
+        return "SELECT " + projection.getColumns() + " FROM " + TABLE +
+               " WHERE `user_id`=? AND `date` BETWEEN ? AND ? ORDER BY `date` ASC, `id` ASC";
+    }
+
+    @Override
     public List<Transaction> findByPeriod(String fromDate, String toDate) throws SQLException {
+        return findByPeriod(fromDate, toDate, TransactionProjection.DETAIL);
+    }
+
+    /**
+     * Also returns rows of months moved to archive files ({@link ArchiveManager});
+     * archived rows carry every column whatever the projection.
+     */
+    @Override
+    public List<Transaction> findByPeriod(String fromDate, String toDate, TransactionProjection projection) throws SQLException {
         List<Transaction> list = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE + " WHERE `date` BETWEEN ? AND ? ORDER BY `date` ASC, `id` ASC";
+        int userId = UserContext.requireUserId();
+        LocalDate from = LocalDate.parse(fromDate);
+        LocalDate to = LocalDate.parse(toDate);
+        try (Connection conn = DBConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(periodSql(projection))) {
+                pstmt.setInt(1, userId);
+                pstmt.setObject(2, from);
+                pstmt.setObject(3, to);
+                ResultSet rs = pstmt.executeQuery();
+                TransactionRowMapper mapper = new TransactionRowMapper(rs);
+                while (rs.next()) {
+                    list.add(mapper.map(rs));
+                }
+            }
+            List<Transaction> archived = archive.findByPeriod(conn, userId, from, to);
+            if (!archived.isEmpty()) {
+                list.addAll(archived);
+                list.sort(PERIOD_ORDER);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void forEachInPeriod(String fromDate, String toDate, Consumer<Transaction> action) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = prepareCursor(conn, TransactionProjection.DETAIL, fromDate, toDate);
+             ResultSet rs = pstmt.executeQuery()) {
+            TransactionRowMapper mapper = new TransactionRowMapper(rs);
+            while (rs.next()) {
+                action.accept(mapper.map(rs));
+            }
+        }
+    }
+
+    @Override
+    public Stream<Transaction> streamByPeriod(String fromDate, String toDate) throws SQLException {
+        return streamByPeriod(fromDate, toDate, TransactionProjection.DETAIL);
+    }
+
+    @Override
+    public Stream<Transaction> streamByPeriod(String fromDate, String toDate, TransactionProjection projection) throws SQLException {
+        Connection conn = DBConnection.getConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs;
+        TransactionRowMapper mapper;
+        try {
+            pstmt = prepareCursor(conn, projection, fromDate, toDate);
+            rs = pstmt.executeQuery();
+            mapper = new TransactionRowMapper(rs);
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(pstmt);
+            closeQuietly(conn);
+            throw e;
+        }
+        final PreparedStatement stmt = pstmt;
+        Spliterator<Transaction> rows = new Spliterators.AbstractSpliterator<Transaction>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Transaction> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Failed to read transaction row", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            closeQuietly(rs);
+            closeQuietly(stmt);
+            closeQuietly(conn);
+        });
+    }
+
+    /**
+     * Forward-only, read-only statement with a bounded fetch size so the driver
+     * reads the result through a server-side cursor instead of buffering it.
+     * Created outside the statement cache because the fetch size is per statement.
+     */
+    private static PreparedStatement prepareCursor(Connection conn, TransactionProjection projection,
+                                                   String fromDate, String toDate) throws SQLException {
+        int userId = UserContext.requireUserId();
+        PreparedStatement pstmt = conn.prepareStatement(periodSql(projection),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(fromDate));
+            pstmt.setObject(3, LocalDate.parse(toDate));
+            return pstmt;
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(pstmt);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    @Override
+    public TransactionPage findPageByPeriod(String fromDate, String toDate, int pageSize, String pageToken) throws SQLException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        // Seek past the last (date, id) seen instead of OFFSET, so page N costs the same as page 1
+        String sql = "SELECT " + TransactionProjection.DETAIL.getColumns() + " FROM " + TABLE +
+                     " WHERE `user_id`=? AND `date` BETWEEN ? AND ?" +
+                     (pageToken != null ? " AND (`date` > ? OR (`date` = ? AND `id` > ?))" : "") +
+                     " ORDER BY `date` ASC, `id` ASC LIMIT ?";
+        List<Transaction> list = new ArrayList<>(pageSize);
+        boolean more = false;
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, fromDate);
-            pstmt.setString(2, toDate);
+            int i = 1;
+            pstmt.setInt(i++, userId);
+            pstmt.setObject(i++, LocalDate.parse(fromDate));
+            pstmt.setObject(i++, LocalDate.parse(toDate));
+            if (pageToken != null) {
+                TransactionPage.Key key = TransactionPage.parseToken(pageToken);
+                pstmt.setObject(i++, key.getDate());
+                pstmt.setObject(i++, key.getDate());
+                pstmt.setInt(i++, key.getId());
+            }
+            // One extra row tells us whether another page exists
+            pstmt.setInt(i, pageSize + 1);
             ResultSet rs = pstmt.executeQuery();
+            TransactionRowMapper mapper = new TransactionRowMapper(rs);
             while (rs.next()) {
-                list.add(mapRow(rs));
+                if (list.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                list.add(mapper.map(rs));
             }
         }
-        return list;
+        String next = more ? TransactionPage.tokenAfter(list.get(list.size() - 1)) : null;
+        return new TransactionPage(list, next);
     }
 
-    public int getTotalByType(String type, String fromDate, String toDate) throws SQLException {
-        String sql = "SELECT COALESCE(SUM(`amount`),0) AS total FROM " + TABLE + " " +
-                     "WHERE `type`=? AND `date` BETWEEN ? AND ?";
+    @Override
+    public String findPageTokenAt(String fromDate, String toDate, int offset) throws SQLException {
+        if (offset <= 0) {
+            return null;
+        }
+        // Reads only the (user_id, date) index, whose entries carry the primary key
+        String sql = "SELECT `date`, `id` FROM " + TABLE +
+                     " WHERE `user_id`=? AND `date` BETWEEN ? AND ?" +
+                     " ORDER BY `date` ASC, `id` ASC LIMIT 1 OFFSET ?";
+        int userId = UserContext.requireUserId();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(fromDate));
+            pstmt.setObject(3, LocalDate.parse(toDate));
+            pstmt.setInt(4, offset - 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return rs.getObject(1, LocalDate.class) + ":" + rs.getInt(2);
+            }
+        }
+    }
+
+    @Override
+    public int countByPeriod(String fromDate, String toDate) throws SQLException {
+        String sql = "SELECT COUNT(*) AS cnt FROM " + TABLE + " WHERE `user_id`=? AND `date` BETWEEN ? AND ?";
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, type);
-            pstmt.setString(2, fromDate);
-            pstmt.setString(3, toDate);
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(fromDate));
+            pstmt.setObject(3, LocalDate.parse(toDate));
             ResultSet rs = pstmt.executeQuery();
-            return rs.next() ? rs.getInt("total") : 0;
+            return rs.next() ? rs.getInt("cnt") : 0;
         }
     }
 
-    public int getTotalIncomeOfMonth(String yearMonth) throws SQLException {
-        String sql = "SELECT COALESCE(SUM(`amount`),0) AS total FROM " + TABLE + " " +
-                     "WHERE `type`='income' AND `date` LIKE ?";
+    @Override
+    public int getTotalByType(String type, String fromDate, String toDate) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(`amount_sum`),0) AS total FROM " + ROLLUP + " " +
+                     "WHERE `user_id`=? AND `type`=? AND `date` BETWEEN ? AND ?";
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, yearMonth + "%");
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, type);
+            pstmt.setObject(3, LocalDate.parse(fromDate));
+            pstmt.setObject(4, LocalDate.parse(toDate));
             ResultSet rs = pstmt.executeQuery();
             return rs.next() ? rs.getInt("total") : 0;
         }
     }
 
+    @Override
+    public int getTotalIncomeOfMonth(String yearMonth) throws SQLException {
+        return getTotalOfMonth("income", yearMonth);
+    }
+
+    @Override
     public int getTotalExpenseOfMonth(String yearMonth) throws SQLException {
-        String sql = "SELECT COALESCE(SUM(`amount`),0) AS total FROM " + TABLE + " " +
-                     "WHERE `type`='expense' AND `date` LIKE ?";
+        return getTotalOfMonth("expense", yearMonth);
+    }
+
+    // Half-open [first day, first day of next month) range so (user_id, type, date) key range scans apply
+    private int getTotalOfMonth(String type, String yearMonth) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(`amount_sum`),0) AS total FROM " + ROLLUP + " " +
+                     "WHERE `user_id`=? AND `type`=? AND `date` >= ? AND `date` < ?";
+        YearMonth ym = YearMonth.parse(yearMonth);
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, yearMonth + "%");
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, type);
+            pstmt.setObject(3, ym.atDay(1));
+            pstmt.setObject(4, ym.plusMonths(1).atDay(1));
             ResultSet rs = pstmt.executeQuery();
             return rs.next() ? rs.getInt("total") : 0;
         }
     }
 
+    @Override
     public int getTotalExpenseOfDay(String date) throws SQLException {
-        String sql = "SELECT COALESCE(SUM(`amount`),0) AS total FROM " + TABLE + " " +
-                     "WHERE `type`='expense' AND `date`=?";
+        String sql = "SELECT COALESCE(SUM(`amount_sum`),0) AS total FROM " + ROLLUP + " " +
+                     "WHERE `user_id`=? AND `type`='expense' AND `date`=?";
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, date);
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(date));
             ResultSet rs = pstmt.executeQuery();
             return rs.next() ? rs.getInt("total") : 0;
         }
     }
 
-    public List<Transaction> getDetailsOfDay(String date) throws SQLException {
-        List<Transaction> list = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE + " WHERE `date`=? ORDER BY `id` ASC";
+    @Override
+    public CategoryBreakdown getCategoryBreakdown(String fromMonth, String toMonth, String type) throws SQLException {
+        // At most one monthly rollup row per (month, category), whatever the number of transactions
+        String sql = "SELECT `year_month`, `category`, `amount_sum` FROM " + MONTHLY_ROLLUP + " " +
+                     "WHERE `user_id`=? AND `type`=? AND `year_month` BETWEEN ? AND ?";
+        Map<String, Map<String, Integer>> cells = new HashMap<>();
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, date);
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, type);
+            pstmt.setString(3, fromMonth);
+            pstmt.setString(4, toMonth);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                list.add(mapRow(rs));
+                cells.computeIfAbsent(rs.getString("year_month"), m -> new HashMap<>())
+                        .put(rs.getString("category"), rs.getInt("amount_sum"));
             }
         }
-        return list;
+        return new CategoryBreakdown(type, fromMonth, toMonth, cells);
     }
 
-    public List<Transaction> getDetailsOfMonth(String yearMonth) throws SQLException {
-        List<Transaction> list = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE + " WHERE `date` LIKE ? ORDER BY `date` ASC, `id` ASC";
+    @Override
+    public List<DailyCategoryTotal> getDailyCategoryTotals(String fromDate, String toDate) throws SQLException {
+        // The rollup already holds one row per group
+        String sql = "SELECT `date`, `type`, `category`, `amount_sum` AS total FROM " + ROLLUP + " " +
+                     "WHERE `user_id`=? AND `date` BETWEEN ? AND ? ORDER BY `date`";
+        List<DailyCategoryTotal> list = new ArrayList<>();
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, yearMonth + "%");
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(fromDate));
+            pstmt.setObject(3, LocalDate.parse(toDate));
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                list.add(mapRow(rs));
+                list.add(new DailyCategoryTotal(
+                        LocalDate.parse(rs.getString("date")),
+                        rs.getString("type"),
+                        rs.getString("category"),
+                        rs.getInt("total")));
             }
         }
         return list;
     }
 
-    public void deleteTransaction(String date, String category, int amount) throws SQLException {
-        String sql = "DELETE FROM " + TABLE + " WHERE `date` = ? AND `category` = ? AND `amount` = ? LIMIT 1";
+    @Override
+    public List<Transaction> getDetailsOfDay(String date) throws SQLException {
+        List<Transaction> list = new ArrayList<>();
+        String sql = "SELECT " + TransactionProjection.DETAIL.getColumns() + " FROM " + TABLE +
+                     " WHERE `user_id`=? AND `date`=? ORDER BY `id` ASC";
+        int userId = UserContext.requireUserId();
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, date);
-            pstmt.setString(2, category);
-            pstmt.setInt(3, amount);
-            pstmt.executeUpdate();
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, LocalDate.parse(date));
+            ResultSet rs = pstmt.executeQuery();
+            TransactionRowMapper mapper = new TransactionRowMapper(rs);
+            while (rs.next()) {
+                list.add(mapper.map(rs));
+            }
         }
+        return list;
     }
 
-    public List<Transaction> findByDate(String date) throws SQLException {
-        return getDetailsOfDay(date);
+    @Override
+    public List<Transaction> getDetailsOfMonth(String yearMonth) throws SQLException {
+        List<Transaction> list = new ArrayList<>();
+        String sql = "SELECT " + TransactionProjection.DETAIL.getColumns() + " FROM " + TABLE +
+                     " WHERE `user_id`=? AND `date` >= ? AND `date` < ? ORDER BY `date` ASC, `id` ASC";
+        YearMonth ym = YearMonth.parse(yearMonth);
+        int userId = UserContext.requireUserId();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setObject(2, ym.atDay(1));
+            pstmt.setObject(3, ym.plusMonths(1).atDay(1));
+            ResultSet rs = pstmt.executeQuery();
+            TransactionRowMapper mapper = new TransactionRowMapper(rs);
+            while (rs.next()) {
+                list.add(mapper.map(rs));
+            }
+        }
+        return list;
     }
 
-    private Transaction mapRow(ResultSet rs) throws SQLException {
-        return new Transaction(
-                rs.getInt("id"),
-                rs.getString("type"),
-                rs.getString("date"),
-                rs.getString("category"),
-                rs.getInt("amount"),
-                rs.getString("memo")
-        );
+    @Override
+    public void deleteTransaction(String date, String category, int amount) throws SQLException {
+        String sql = "SELECT " + TransactionProjection.LIST.getColumns() + " FROM " + TABLE +
+                     " WHERE `user_id` = ? AND `date` = ? AND `category` = ? AND `amount` = ? " +
+                     "ORDER BY `id` LIMIT 1 FOR UPDATE";
+        int userId = UserContext.requireUserId();
+        inTransaction(conn -> {
+            Transaction row;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setObject(2, LocalDate.parse(date));
+                pstmt.setString(3, category);
+                pstmt.setInt(4, amount);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    row = new TransactionRowMapper(rs).map(rs);
+                }
+            }
+            return deleteRow(conn, userId, row);
+        });
     }
 }
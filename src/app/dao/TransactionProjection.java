@@ -0,0 +1,30 @@
+package app.dao;
+
+/**
+ * Column sets TransactionDAO can read, so a query transfers only what its
+ * caller uses. Columns outside the projection come back as 0 / null.
+ */
+public enum TransactionProjection {
+
+    /** Everything shown in detail views (all columns except created_at). */
+    DETAIL("`id`, `type`, `date`, `category`, `amount`, `memo`"),
+
+    /** List views and row bookkeeping: no memo. */
+    LIST("`id`, `type`, `date`, `category`, `amount`"),
+
+    /** Aggregations and exports of amounts: no id or memo. */
+    AGGREGATE("`type`, `date`, `category`, `amount`");
+
+    private final String columns;
+
+    TransactionProjection(String columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * @return Comma separated, quoted column list for a SELECT clause
+     */
+    public String getColumns() {
+        return columns;
+    }
+}
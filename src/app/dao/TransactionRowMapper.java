@@ -0,0 +1,52 @@
+package app.dao;
+
+import app.model.Transaction;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Maps transaction rows by column index. The indexes are resolved from the
+ * result set metadata once, instead of by name lookup on every row, and
+ * columns the query did not select are simply left empty.
+ */
+final class TransactionRowMapper {
+
+    private int id;
+    private int type;
+    private int date;
+    private int category;
+    private int amount;
+    private int memo;
+
+    /**
+     * @param rs Result set whose rows will be mapped (its cursor is not moved)
+     */
+    TransactionRowMapper(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            switch (meta.getColumnLabel(i).toLowerCase(Locale.ROOT)) {
+                case "id": id = i; break;
+                case "type": type = i; break;
+                case "date": date = i; break;
+                case "category": category = i; break;
+                case "amount": amount = i; break;
+                case "memo": memo = i; break;
+                default: break;
+            }
+        }
+    }
+
+    Transaction map(ResultSet rs) throws SQLException {
+        return new Transaction(
+                id > 0 ? rs.getInt(id) : 0,
+                type > 0 ? rs.getString(type) : null,
+                date > 0 ? rs.getObject(date, LocalDate.class) : null,
+                category > 0 ? rs.getString(category) : null,
+                amount > 0 ? rs.getInt(amount) : 0,
+                memo > 0 ? rs.getString(memo) : null
+        );
+    }
+}
@@ -0,0 +1,134 @@
+package app.dao;
+
+import app.model.CategoryBreakdown;
+import app.model.DailyCategoryTotal;
+import app.model.Transaction;
+import app.model.TransactionPage;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend for transactions.
+ * Dates are "YYYY-MM-DD" strings and months are "YYYY-MM" strings.
+ * Every call reads or writes the logged-in user's rows only ({@link UserContext});
+ * calls made while nobody is logged in throw IllegalStateException.
+ *
+ * Implementations: {@link TransactionDAO} (JDBC) and
+ * {@link InMemoryTransactionStore} (local, no database).
+ */
+public interface TransactionStore {
+
+    void insert(Transaction t) throws SQLException;
+
+    /**
+     * Insert many transactions atomically: either all rows are stored or none.
+     * The generated ids are also set on the given objects.
+     *
+     * @return Generated ids in iteration order of the collection
+     */
+    List<Integer> insertAll(Collection<Transaction> transactions) throws SQLException;
+
+    /**
+     * @return true if a row was deleted
+     */
+    boolean delete(int id) throws SQLException;
+
+    /**
+     * @return The transaction with the given id, or null if there is none
+     */
+    Transaction findById(int id) throws SQLException;
+
+    /**
+     * Look up rows stored with the given client keys (see {@link Transaction#getClientKey()}),
+     * e.g. to skip entries of a replayed journal that were already committed.
+     *
+     * @return client key -> id for the keys that exist
+     */
+    Map<String, Integer> findIdsByClientKeys(Collection<String> clientKeys) throws SQLException;
+
+    List<Transaction> findByPeriod(String fromDate, String toDate) throws SQLException;
+
+    /**
+     * Like {@link #findByPeriod(String, String)}, reading only the projected columns
+     * (stores that keep rows in memory may return full rows).
+     */
+    default List<Transaction> findByPeriod(String fromDate, String toDate, TransactionProjection projection) throws SQLException {
+        return findByPeriod(fromDate, toDate);
+    }
+
+    /**
+     * Stream the transactions of a period in (date, id) order without loading
+     * them all into memory. The stream holds database resources and must be
+     * closed, e.g. with try-with-resources.
+     */
+    Stream<Transaction> streamByPeriod(String fromDate, String toDate) throws SQLException;
+
+    /**
+     * Like {@link #streamByPeriod(String, String)}, reading only the projected columns
+     * (stores that keep rows in memory may return full rows).
+     */
+    default Stream<Transaction> streamByPeriod(String fromDate, String toDate, TransactionProjection projection) throws SQLException {
+        return streamByPeriod(fromDate, toDate);
+    }
+
+    /**
+     * Visit the transactions of a period in (date, id) order, one row at a time.
+     */
+    void forEachInPeriod(String fromDate, String toDate, Consumer<Transaction> action) throws SQLException;
+
+    /**
+     * Keyset-paginated listing of a period in (date, id) order.
+     *
+     * @param pageSize Maximum rows on the page
+     * @param pageToken Continuation token from the previous page, or null for the first page
+     */
+    TransactionPage findPageByPeriod(String fromDate, String toDate, int pageSize, String pageToken) throws SQLException;
+
+    /**
+     * Seek to a row of the period's (date, id) order without reading the rows
+     * before it, e.g. to jump to a page deep inside a long listing.
+     *
+     * @param offset 0-based row position
+     * @return Token for {@link #findPageByPeriod} whose page starts at that row;
+     *         null if offset is 0 or the period has no row before that position
+     */
+    String findPageTokenAt(String fromDate, String toDate, int offset) throws SQLException;
+
+    int countByPeriod(String fromDate, String toDate) throws SQLException;
+
+    int getTotalByType(String type, String fromDate, String toDate) throws SQLException;
+
+    int getTotalIncomeOfMonth(String yearMonth) throws SQLException;
+
+    int getTotalExpenseOfMonth(String yearMonth) throws SQLException;
+
+    int getTotalExpenseOfDay(String date) throws SQLException;
+
+    List<Transaction> getDetailsOfDay(String date) throws SQLException;
+
+    /**
+     * Amount totals grouped by (date, type, category) for a period, in date order.
+     * Used to seed aggregates that are then maintained incrementally.
+     */
+    List<DailyCategoryTotal> getDailyCategoryTotals(String fromDate, String toDate) throws SQLException;
+
+    List<Transaction> getDetailsOfMonth(String yearMonth) throws SQLException;
+
+    /**
+     * Amount per month and category for one type over a range of months.
+     *
+     * @param fromMonth First month "YYYY-MM" (inclusive)
+     * @param toMonth Last month "YYYY-MM" (inclusive)
+     */
+    CategoryBreakdown getCategoryBreakdown(String fromMonth, String toMonth, String type) throws SQLException;
+
+    void deleteTransaction(String date, String category, int amount) throws SQLException;
+
+    default List<Transaction> findByDate(String date) throws SQLException {
+        return getDetailsOfDay(date);
+    }
+}
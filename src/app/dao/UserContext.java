@@ -0,0 +1,82 @@
+package app.dao;
+
+import java.sql.SQLException;
+
+/**
+ * The logged-in user whose data the stores read and write.
+ *
+ * SpendMate is a single-window desktop app, so this is process-wide rather
+ * than per thread: background loaders and maintenance jobs see the same user
+ * as the UI. Set by UserService on login and cleared on logout;
+ * {@link #callAs(int, UserWork)} overrides it for one thread.
+ */
+public final class UserContext {
+
+    // 0 = nobody logged in (user ids start at 1)
+    private static volatile int userId;
+
+    // Set by callAs() for background work done on behalf of a specific user
+    private static final ThreadLocal<Integer> OVERRIDE = new ThreadLocal<>();
+
+    /** Work run by {@link #callAs(int, UserWork)}. */
+    @FunctionalInterface
+    public interface UserWork<T> {
+        T run() throws SQLException;
+    }
+
+    private UserContext() {
+    }
+
+    public static void setUserId(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Invalid user id: " + id);
+        }
+        userId = id;
+    }
+
+    public static void clear() {
+        userId = 0;
+    }
+
+    /**
+     * Run work on the current thread as the given user, whoever is logged in.
+     * Used by background writers that must finish a user's queued work after
+     * that user logged out.
+     */
+    public static <T> T callAs(int id, UserWork<T> work) throws SQLException {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Invalid user id: " + id);
+        }
+        Integer previous = OVERRIDE.get();
+        OVERRIDE.set(id);
+        try {
+            return work.run();
+        } finally {
+            if (previous != null) {
+                OVERRIDE.set(previous);
+            } else {
+                OVERRIDE.remove();
+            }
+        }
+    }
+
+    /**
+     * @return The logged-in user's id (or the callAs() user on this thread), or 0 if nobody is logged in
+     */
+    public static int getUserId() {
+        Integer override = OVERRIDE.get();
+        return override != null ? override : userId;
+    }
+
+    /**
+     * @return The logged-in user's id
+     * @throws IllegalStateException if nobody is logged in
+     */
+    public static int requireUserId() {
+        int id = getUserId();
+        if (id <= 0) {
+            throw new IllegalStateException("No user is logged in");
+        }
+        return id;
+    }
+}
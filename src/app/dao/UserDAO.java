@@ -10,13 +10,13 @@ import java.nio.charset.StandardCharsets;
  * Data Access Object for User operations.
  * Handles user registration, authentication, and retrieval.
  */
-public class UserDAO {
+public class UserDAO implements UserStore {
 
     /**
      * Hash password using SHA-256.
      * In production, use bcrypt or similar secure hashing.
      */
-    private String hashPassword(String password) {
+    static String hashPassword(String password) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
@@ -38,6 +38,7 @@ public class UserDAO {
      * @param user User object with username, password, and email
      * @return true if registration successful, false if username already exists
      */
+    @Override
     public boolean registerUser(User user) {
         String sql = "INSERT INTO " + DBConnection.TABLE_USERS + 
                 " (username, password, email) VALUES (?, ?, ?)";
@@ -77,6 +78,7 @@ public class UserDAO {
      * @param password Plain text password to verify
      * @return User object if authentication successful, null otherwise
      */
+    @Override
     public User authenticate(String username, String password) {
         String sql = "SELECT * FROM " + DBConnection.TABLE_USERS + 
                 " WHERE username = ? AND password = ?";
@@ -112,6 +114,7 @@ public class UserDAO {
      * @param username Username to check
      * @return true if username exists, false otherwise
      */
+    @Override
     public boolean usernameExists(String username) {
         String sql = "SELECT COUNT(*) FROM " + DBConnection.TABLE_USERS + 
                 " WHERE username = ?";
@@ -139,6 +142,7 @@ public class UserDAO {
      * @param email Email to check
      * @return true if email exists, false otherwise
      */
+    @Override
     public boolean emailExists(String email) {
         String sql = "SELECT COUNT(*) FROM " + DBConnection.TABLE_USERS + 
                 " WHERE email = ?";
@@ -166,6 +170,7 @@ public class UserDAO {
      * @param id User ID
      * @return User object if found, null otherwise
      */
+    @Override
     public User getUserById(int id) {
         String sql = "SELECT * FROM " + DBConnection.TABLE_USERS + " WHERE id = ?";
         
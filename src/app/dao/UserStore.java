@@ -0,0 +1,29 @@
+package app.dao;
+
+import app.model.User;
+
+/**
+ * Storage backend for user accounts.
+ *
+ * Implementations: {@link UserDAO} (JDBC) and {@link InMemoryUserStore}.
+ */
+public interface UserStore {
+
+    /**
+     * Register a new user.
+     *
+     * @return true if registration successful, false if username or email already exists
+     */
+    boolean registerUser(User user);
+
+    /**
+     * @return User object if authentication successful, null otherwise
+     */
+    User authenticate(String username, String password);
+
+    boolean usernameExists(String username);
+
+    boolean emailExists(String email);
+
+    User getUserById(int id);
+}
@@ -0,0 +1,98 @@
+package app.model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Month x category matrix of amounts for one transaction type.
+ *
+ * Months are "YYYY-MM" strings in ascending order and include months without
+ * transactions; categories are ordered by their total over the whole range,
+ * largest first. Missing cells are 0.
+ */
+public final class CategoryBreakdown {
+    private final String type;
+    private final List<String> months;
+    private final List<String> categories;
+    private final Map<String, Map<String, Integer>> cells;   // month -> category -> amount
+
+    /**
+     * @param fromMonth First month "YYYY-MM" (inclusive)
+     * @param toMonth Last month "YYYY-MM" (inclusive)
+     * @param cells Month to (category to amount); months and categories may be missing
+     */
+    public CategoryBreakdown(String type, String fromMonth, String toMonth, Map<String, Map<String, Integer>> cells) {
+        this.type = type;
+        List<String> range = new ArrayList<>();
+        for (YearMonth m = YearMonth.parse(fromMonth); !m.isAfter(YearMonth.parse(toMonth)); m = m.plusMonths(1)) {
+            range.add(m.toString());
+        }
+        this.months = Collections.unmodifiableList(range);
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        Map<String, Integer> categoryTotals = new TreeMap<>();
+        for (Map.Entry<String, Map<String, Integer>> month : cells.entrySet()) {
+            copy.put(month.getKey(), new HashMap<>(month.getValue()));
+            month.getValue().forEach((category, amount) -> categoryTotals.merge(category, amount, Integer::sum));
+        }
+        this.cells = copy;
+        List<String> ordered = new ArrayList<>(categoryTotals.keySet());
+        ordered.sort((a, b) -> Integer.compare(categoryTotals.get(b), categoryTotals.get(a)));
+        this.categories = Collections.unmodifiableList(ordered);
+    }
+
+    public String getType() { return type; }
+    public List<String> getMonths() { return months; }
+    public List<String> getCategories() { return categories; }
+
+    public int getAmount(String month, String category) {
+        Map<String, Integer> row = cells.get(month);
+        return row == null ? 0 : row.getOrDefault(category, 0);
+    }
+
+    public int getMonthTotal(String month) {
+        Map<String, Integer> row = cells.get(month);
+        int total = 0;
+        if (row != null) {
+            for (int amount : row.values()) {
+                total += amount;
+            }
+        }
+        return total;
+    }
+
+    public int getCategoryTotal(String category) {
+        int total = 0;
+        for (Map<String, Integer> row : cells.values()) {
+            total += row.getOrDefault(category, 0);
+        }
+        return total;
+    }
+
+    public int getGrandTotal() {
+        int total = 0;
+        for (String month : months) {
+            total += getMonthTotal(month);
+        }
+        return total;
+    }
+
+    /**
+     * @return Category to amount for one month, in {@link #getCategories()} order, zero cells omitted
+     */
+    public Map<String, Integer> getMonth(String month) {
+        Map<String, Integer> row = new LinkedHashMap<>();
+        for (String category : categories) {
+            int amount = getAmount(month, category);
+            if (amount != 0) {
+                row.put(category, amount);
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,25 @@
+package app.model;
+
+import java.time.LocalDate;
+
+/**
+ * SUM(amount) of one (date, type, category) group.
+ */
+public final class DailyCategoryTotal {
+    private final LocalDate date;
+    private final String type;
+    private final String category;
+    private final int amount;
+
+    public DailyCategoryTotal(LocalDate date, String type, String category, int amount) {
+        this.date = date;
+        this.type = type;
+        this.category = category;
+        this.amount = amount;
+    }
+
+    public LocalDate getDate() { return date; }
+    public String getType() { return type; }
+    public String getCategory() { return category; }
+    public int getAmount() { return amount; }
+}
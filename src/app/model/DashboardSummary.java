@@ -0,0 +1,41 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the numbers shown on the dashboard and budget tabs:
+ * month income/expense, one day's expense, and that day's expense per category.
+ */
+public final class DashboardSummary {
+    private final String yearMonth;       // "YYYY-MM"
+    private final LocalDate day;
+    private final int monthIncome;
+    private final int monthExpense;
+    private final int dayExpense;
+    private final Map<String, Integer> dayExpenseByCategory;
+
+    public DashboardSummary(String yearMonth, LocalDate day, int monthIncome, int monthExpense,
+                            int dayExpense, Map<String, Integer> dayExpenseByCategory) {
+        this.yearMonth = yearMonth;
+        this.day = day;
+        this.monthIncome = monthIncome;
+        this.monthExpense = monthExpense;
+        this.dayExpense = dayExpense;
+        this.dayExpenseByCategory = Collections.unmodifiableMap(new LinkedHashMap<>(dayExpenseByCategory));
+    }
+
+    public String getYearMonth() { return yearMonth; }
+    public LocalDate getDay() { return day; }
+    public int getMonthIncome() { return monthIncome; }
+    public int getMonthExpense() { return monthExpense; }
+    public int getDayExpense() { return dayExpense; }
+    public int getBalance() { return monthIncome - monthExpense; }
+
+    /**
+     * @return Category to expense amount for the day, largest first (read-only)
+     */
+    public Map<String, Integer> getDayExpenseByCategory() { return dayExpenseByCategory; }
+}
@@ -1,16 +1,19 @@
 package app.model;
 
+import java.time.LocalDate;
+
 public class Transaction {
     private int id;
     private String type;      // "income" or "expense"
-    private String date;      // "YYYY-MM-DD"
+    private LocalDate date;   // exposed as "YYYY-MM-DD" through getDate()/setDate()
     private String category;
     private int amount;
     private String memo;
+    private String clientKey; // optional idempotency key, unique per date
 
     public Transaction() {}
 
-    public Transaction(int id, String type, String date, String category, int amount, String memo) {
+    public Transaction(int id, String type, LocalDate date, String category, int amount, String memo) {
         this.id = id;
         this.type = type;
         this.date = date;
@@ -19,6 +22,13 @@ public class Transaction {
         this.memo = memo;
     }
 
+    /**
+     * @throws java.time.format.DateTimeParseException if date is not "YYYY-MM-DD"
+     */
+    public Transaction(int id, String type, String date, String category, int amount, String memo) {
+        this(id, type, parseDate(date), category, amount, memo);
+    }
+
     public Transaction(String type, String date, String category, int amount, String memo) {
         this(0, type, date, category, amount, memo);
     }
@@ -29,8 +39,11 @@ public class Transaction {
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
 
-    public String getDate() { return date; }
-    public void setDate(String date) { this.date = date; }
+    public String getDate() { return date != null ? date.toString() : null; }
+    public void setDate(String date) { this.date = parseDate(date); }
+
+    public LocalDate getLocalDate() { return date; }
+    public void setLocalDate(LocalDate date) { this.date = date; }
 
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
@@ -40,4 +53,11 @@ public class Transaction {
 
     public String getMemo() { return memo; }
     public void setMemo(String memo) { this.memo = memo; }
+
+    public String getClientKey() { return clientKey; }
+    public void setClientKey(String clientKey) { this.clientKey = clientKey; }
+
+    private static LocalDate parseDate(String date) {
+        return date != null ? LocalDate.parse(date.trim()) : null;
+    }
 }
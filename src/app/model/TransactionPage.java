@@ -0,0 +1,71 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated transaction listing, ordered by (date, id).
+ *
+ * The continuation token encodes the (date, id) of the last row on the page;
+ * passing it back fetches the rows strictly after it, so every page costs the
+ * same no matter how deep into the listing it is.
+ */
+public final class TransactionPage {
+    private final List<Transaction> items;
+    private final String nextToken;
+
+    public TransactionPage(List<Transaction> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    public List<Transaction> getItems() { return items; }
+
+    /**
+     * @return Token for the following page, or null if this is the last page
+     */
+    public String getNextToken() { return nextToken; }
+
+    public boolean hasNext() { return nextToken != null; }
+
+    /**
+     * Build the token pointing just after the given row.
+     */
+    public static String tokenAfter(Transaction last) {
+        return last.getDate() + ":" + last.getId();
+    }
+
+    /**
+     * Decode a token produced by {@link #tokenAfter(Transaction)}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static Key parseToken(String token) {
+        int sep = token.lastIndexOf(':');
+        if (sep <= 0) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
+        try {
+            return new Key(LocalDate.parse(token.substring(0, sep)), Integer.parseInt(token.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+
+    /**
+     * Decoded (date, id) position of a continuation token.
+     */
+    public static final class Key {
+        private final LocalDate date;
+        private final int id;
+
+        public Key(LocalDate date, int id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        public LocalDate getDate() { return date; }
+        public int getId() { return id; }
+    }
+}
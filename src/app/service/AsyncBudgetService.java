@@ -0,0 +1,50 @@
+package app.service;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link BudgetService}; see {@link AsyncTransactionService}.
+ */
+public class AsyncBudgetService {
+
+    private final BudgetService service;
+
+    public AsyncBudgetService(BudgetService service) {
+        this.service = service;
+    }
+
+    public BudgetService getService() {
+        return service;
+    }
+
+    public CompletableFuture<Void> saveMonthlyBudgetAsync(String yearMonth, int limitAmt) {
+        return BackgroundExecutor.submit(() -> {
+            service.saveMonthlyBudget(yearMonth, limitAmt);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> saveBudgetsAsync(Map<YearMonth, Integer> limits) {
+        return BackgroundExecutor.submit(() -> {
+            service.saveBudgets(limits);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> isOverBudgetAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.isOverBudget(yearMonth));
+    }
+
+    public CompletableFuture<Integer> getUsedExpenseOfMonthAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getUsedExpenseOfMonth(yearMonth));
+    }
+
+    /**
+     * @return Future of the month's limit, completed with null if no budget is set
+     */
+    public CompletableFuture<Integer> getBudgetLimitAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getBudgetLimit(yearMonth));
+    }
+}
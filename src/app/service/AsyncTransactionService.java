@@ -0,0 +1,110 @@
+package app.service;
+
+import app.model.CategoryBreakdown;
+import app.model.DashboardSummary;
+import app.model.Transaction;
+import app.model.TransactionPage;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link TransactionService}.
+ *
+ * Every call runs on {@link BackgroundExecutor#submit} (virtual threads where
+ * available, bounded concurrency), so independent queries overlap: start them
+ * all, then combine the futures. Failures complete the future exceptionally
+ * with the original exception (usually an SQLException).
+ */
+public class AsyncTransactionService {
+
+    private final TransactionService service;
+
+    public AsyncTransactionService(TransactionService service) {
+        this.service = service;
+    }
+
+    /**
+     * @return The blocking service behind this facade
+     */
+    public TransactionService getService() {
+        return service;
+    }
+
+    public CompletableFuture<Void> addTransactionAsync(String type, String date, String category, int amount, String memo) {
+        return BackgroundExecutor.submit(() -> {
+            service.addTransaction(type, date, category, amount, memo);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<Integer>> addTransactionsAsync(Collection<Transaction> transactions) {
+        return BackgroundExecutor.submit(() -> service.addTransactions(transactions));
+    }
+
+    public CompletableFuture<List<Transaction>> getMonthDetailsAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getMonthDetails(yearMonth));
+    }
+
+    public CompletableFuture<TransactionPage> getMonthPageAsync(String yearMonth, int pageSize, String pageToken) {
+        return BackgroundExecutor.submit(() -> service.getMonthPage(yearMonth, pageSize, pageToken));
+    }
+
+    public CompletableFuture<Integer> getMonthCountAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getMonthCount(yearMonth));
+    }
+
+    public CompletableFuture<List<Transaction>> getDayDetailsAsync(LocalDate date) {
+        return BackgroundExecutor.submit(() -> service.getDayDetails(date));
+    }
+
+    public CompletableFuture<Integer> getMonthIncomeAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getMonthIncome(yearMonth));
+    }
+
+    public CompletableFuture<Integer> getMonthExpenseAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getMonthExpense(yearMonth));
+    }
+
+    /**
+     * Month income and expense, queried concurrently.
+     *
+     * @return Future of {income, expense}
+     */
+    public CompletableFuture<int[]> getMonthTotalsAsync(String yearMonth) {
+        return getMonthIncomeAsync(yearMonth).thenCombine(getMonthExpenseAsync(yearMonth),
+                (income, expense) -> new int[]{income, expense});
+    }
+
+    public CompletableFuture<Integer> getDayExpenseAsync(LocalDate date) {
+        return BackgroundExecutor.submit(() -> service.getDayExpense(date));
+    }
+
+    public CompletableFuture<CategoryBreakdown> getCategoryBreakdownAsync(String fromMonth, String toMonth, String type) {
+        return BackgroundExecutor.submit(() -> service.getCategoryBreakdown(fromMonth, toMonth, type));
+    }
+
+    public CompletableFuture<Map<String, Integer>> getMonthExpenseByCategoryAsync(String yearMonth) {
+        return BackgroundExecutor.submit(() -> service.getMonthExpenseByCategory(yearMonth));
+    }
+
+    public CompletableFuture<DashboardSummary> getDashboardSummaryAsync(String yearMonth, LocalDate day) {
+        return BackgroundExecutor.submit(() -> service.getDashboardSummary(yearMonth, day));
+    }
+
+    public CompletableFuture<Void> deleteTransactionAsync(String date, String category, int amount) {
+        return BackgroundExecutor.submit(() -> {
+            service.deleteTransaction(date, category, amount);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteTransactionByIdAsync(int id) {
+        return BackgroundExecutor.submit(() -> {
+            service.deleteTransactionById(id);
+            return null;
+        });
+    }
+}
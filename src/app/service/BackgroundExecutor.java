@@ -0,0 +1,113 @@
+package app.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared executor for blocking service calls (JDBC) that must not run on the
+ * caller's thread, e.g. the Swing EDT.
+ *
+ * Uses one virtual thread per task when the JVM supports it (Java 21+), and a
+ * cached pool of daemon platform threads otherwise. Concurrency against the
+ * database is bounded by the connection pool either way.
+ */
+public final class BackgroundExecutor {
+
+    private static final ExecutorService EXECUTOR = create();
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("spendmate-scheduler-"));
+
+    // Tasks from submit() running at once (-Dspendmate.async.maxConcurrency, default: the pool's maxSize)
+    private static final int MAX_CONCURRENCY = Math.max(1, Integer.getInteger("spendmate.async.maxConcurrency",
+            Integer.getInteger("spendmate.pool.maxSize", 8)));
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENCY, true);
+
+    private BackgroundExecutor() {
+    }
+
+    /**
+     * @return The shared executor (never shut down; its threads do not keep the JVM alive)
+     */
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    /**
+     * @return Shared scheduler for periodic maintenance jobs; jobs run one at a time
+     */
+    public static ScheduledExecutorService scheduler() {
+        return SCHEDULER;
+    }
+
+    /**
+     * Run a blocking call on the shared executor, at most {@code MAX_CONCURRENCY}
+     * at a time, so async callers wait here instead of piling up on the
+     * connection pool. Waiting costs no platform thread when tasks run on
+     * virtual threads.
+     *
+     * @return Future completed with the call's result, or exceptionally with the
+     *         exception it threw (e.g. the SQLException itself)
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                if (!future.isDone()) { // skip work cancelled while waiting for a permit
+                    future.complete(task.call());
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                PERMITS.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return Maximum number of {@link #submit(Callable)} tasks running at once
+     */
+    public static int getMaxConcurrency() {
+        return MAX_CONCURRENCY;
+    }
+
+    /**
+     * @return true if tasks run on virtual threads
+     */
+    public static boolean isVirtual() {
+        return !(EXECUTOR instanceof java.util.concurrent.ThreadPoolExecutor);
+    }
+
+    private static ExecutorService create() {
+        try {
+            // Looked up reflectively so the sources still compile and run on Java 17
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(daemonThreads("spendmate-io-"));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
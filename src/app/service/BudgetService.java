@@ -1,39 +1,114 @@
 package app.service;
 
-import app.dao.BudgetDAO;
-import app.dao.TransactionDAO;
+import app.dao.BudgetStore;
+import app.dao.UserContext;
 import app.model.Budget;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class BudgetService {
 
-    private final BudgetDAO budgetDAO;
-    private final TransactionDAO transactionDAO;
+    // Months whose budget lookups are cached (-Dspendmate.budgets.cacheSize)
+    private static final int CACHE_SIZE = Integer.getInteger("spendmate.budgets.cacheSize", 36);
 
-    public BudgetService(BudgetDAO budgetDAO, TransactionDAO transactionDAO) {
+    private final BudgetStore budgetDAO;
+    // Month expense comes from its running totals, not a SUM query
+    private final TransactionService transactionService;
+
+    // "YYYY-MM" -> budget, or null for a month without one. Budgets change rarely and
+    // only through this service, so entries are kept until evicted or the user changes.
+    private final LruCache<String, Budget> cache = new LruCache<>(Math.max(1, CACHE_SIZE));
+    // User whose budgets are cached (see UserContext)
+    private int owner;
+
+    public BudgetService(BudgetStore budgetDAO, TransactionService transactionService) {
         this.budgetDAO = budgetDAO;
-        this.transactionDAO = transactionDAO;
+        this.transactionService = transactionService;
     }
 
     public void saveMonthlyBudget(String yearMonth, int limitAmt) throws Exception {
         Budget b = new Budget(yearMonth, limitAmt);
+        beginWrite(List.of(b));
         budgetDAO.upsert(b);
+        cacheWritten(List.of(b));
+    }
+
+    /**
+     * Set the budgets of many months (e.g. a full year of planning) in one
+     * batched statement; either all are saved or none.
+     *
+     * @param limits Month to limit amount
+     */
+    public void saveBudgets(Map<YearMonth, Integer> limits) throws Exception {
+        List<Budget> budgets = new ArrayList<>(limits.size());
+        for (Map.Entry<YearMonth, Integer> e : new TreeMap<>(limits).entrySet()) {
+            if (e.getValue() == null || e.getValue() < 0) {
+                throw new IllegalArgumentException("Invalid budget for " + e.getKey() + ": " + e.getValue());
+            }
+            budgets.add(new Budget(e.getKey().toString(), e.getValue()));
+        }
+        beginWrite(budgets);
+        budgetDAO.upsertAll(budgets);
+        cacheWritten(budgets);
     }
 
     public boolean isOverBudget(String yearMonth) throws Exception {
-        Budget b = budgetDAO.findByYearMonth(yearMonth);
+        Budget b = findBudget(yearMonth);
         if (b == null) {
             return false;
         }
-        int used = transactionDAO.getTotalExpenseOfMonth(yearMonth);
+        int used = transactionService.getMonthExpense(yearMonth);
         return used > b.getLimitAmt();
     }
 
     public int getUsedExpenseOfMonth(String yearMonth) throws Exception {
-        return transactionDAO.getTotalExpenseOfMonth(yearMonth);
+        return transactionService.getMonthExpense(yearMonth);
     }
 
     public Integer getBudgetLimit(String yearMonth) throws Exception {
-        Budget b = budgetDAO.findByYearMonth(yearMonth);
+        Budget b = findBudget(yearMonth);
         return (b != null) ? b.getLimitAmt() : null;
     }
+
+    /**
+     * Counters of the budget lookup cache: hits are lookups answered from
+     * memory (including months known to have no budget), misses are months
+     * read from the store, invalidations are entries dropped by a save (cached
+     * again once it succeeds) or a user change.
+     */
+    public CacheStats getBudgetCacheStats() {
+        return cache.getStats();
+    }
+
+    private Budget findBudget(String yearMonth) throws SQLException {
+        checkOwner();
+        return cache.get(yearMonth, () -> budgetDAO.findByYearMonth(yearMonth));
+    }
+
+    // A lookup that raced with the write is not cached
+    private void beginWrite(List<Budget> budgets) {
+        checkOwner();
+        for (Budget b : budgets) {
+            cache.invalidate(b.getYearMonth());
+        }
+    }
+
+    // Write-through after a successful save
+    private void cacheWritten(List<Budget> budgets) {
+        for (Budget b : budgets) {
+            cache.put(b.getYearMonth(), b);
+        }
+    }
+
+    private synchronized void checkOwner() {
+        int current = UserContext.getUserId();
+        if (current != owner) {
+            owner = current;
+            cache.clear();
+        }
+    }
 }
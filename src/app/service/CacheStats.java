@@ -0,0 +1,58 @@
+package app.service;
+
+/**
+ * Immutable snapshot of a service-level cache's counters.
+ */
+public class CacheStats {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    public CacheStats(int size, int maxSize, long hits, long misses, long evictions, long invalidations) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() { return size; }
+    public int getMaxSize() { return maxSize; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    /**
+     * @return Entries dropped because the cache was full
+     */
+    public long getEvictions() { return evictions; }
+
+    /**
+     * @return Entries dropped because a write changed the underlying data
+     */
+    public long getInvalidations() { return invalidations; }
+
+    /**
+     * @return Hits / lookups, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "size=" + size +
+                ", maxSize=" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                ", hitRate=" + String.format("%.2f", getHitRate()) +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+package app.service;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small read-through cache, bounded by least recent use. Null values are
+ * cached like any other (e.g. "no such row").
+ *
+ * A load that races with a write ({@link #put} or {@link #invalidate}) is not
+ * stored, so a value read before the write never replaces the written one.
+ * Loads run outside the lock; two threads missing the same key both load.
+ */
+class LruCache<K, V> {
+
+    @FunctionalInterface
+    interface Loader<V> {
+        V load() throws SQLException;
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param maxSize Maximum entries (0 disables caching)
+     */
+    LruCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value, loading and storing it on a miss.
+     */
+    V get(K key, Loader<V> loader) throws SQLException {
+        long loadVersion;
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                hits++;
+                return entries.get(key);
+            }
+            misses++;
+            loadVersion = version;
+        }
+        V value = loader.load();
+        synchronized (this) {
+            if (maxSize > 0 && loadVersion == version) {
+                entries.put(key, value);
+            } // else data changed while the value was being loaded
+        }
+        return value;
+    }
+
+    /**
+     * Store a value just written to the underlying store (write-through).
+     */
+    synchronized void put(K key, V value) {
+        version++; // a load already in flight read the old value
+        if (maxSize > 0) {
+            entries.put(key, value);
+        }
+    }
+
+    synchronized void invalidate(K key) {
+        version++;
+        if (entries.containsKey(key)) {
+            entries.remove(key);
+            invalidations++;
+        }
+    }
+
+    synchronized void clear() {
+        version++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    synchronized CacheStats getStats() {
+        return new CacheStats(entries.size(), maxSize, hits, misses, evictions, invalidations);
+    }
+}
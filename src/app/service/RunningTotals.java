@@ -0,0 +1,266 @@
+package app.service;
+
+import app.dao.TransactionStore;
+import app.dao.UserContext;
+import app.model.DailyCategoryTotal;
+import app.model.DashboardSummary;
+import app.model.Transaction;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Live per-month, per-day and per-category totals.
+ *
+ * A month is seeded with one grouped query the first time it is read; after
+ * that every add or delete made through {@link TransactionService} adjusts the
+ * counters in O(1), so dashboard and budget reads never run SUM queries.
+ * At most maxMonths months are kept (least recently read are dropped).
+ *
+ * This replaces the earlier read-through TTL cache of the SUM totals: the
+ * dashboard and budget bar re-read right after every save, and every save
+ * invalidated exactly those entries, so that cache missed on almost every read.
+ *
+ * Writes from other clients are not seen; {@link #reconcile()} recomputes the
+ * tracked months from the database and corrects (and reports) any drift.
+ * Totals belong to the logged-in user; they are dropped when the user changes.
+ */
+class RunningTotals {
+
+    private static final class MonthTotals {
+        private int income;
+        private int expense;
+        private final Map<String, Integer> expenseByCategory = new HashMap<>();
+        private final Map<LocalDate, Integer> dayExpense = new HashMap<>();
+        private final Map<LocalDate, Map<String, Integer>> dayExpenseByCategory = new HashMap<>();
+
+        void add(String type, LocalDate date, String category, int amount) {
+            if ("income".equals(type)) {
+                income += amount;
+                return;
+            }
+            expense += amount;
+            addTo(expenseByCategory, category, amount);
+            addTo(dayExpense, date, amount);
+            Map<String, Integer> day = dayExpenseByCategory.computeIfAbsent(date, d -> new HashMap<>());
+            addTo(day, category, amount);
+            if (day.isEmpty()) {
+                dayExpenseByCategory.remove(date);
+            }
+        }
+
+        // Zero entries are dropped so an updated month compares equal to a freshly seeded one
+        private static <K> void addTo(Map<K, Integer> map, K key, int amount) {
+            if (map.merge(key, amount, Integer::sum) == 0) {
+                map.remove(key);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MonthTotals)) {
+                return false;
+            }
+            MonthTotals other = (MonthTotals) o;
+            return income == other.income && expense == other.expense
+                    && dayExpenseByCategory.equals(other.dayExpenseByCategory);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(income, expense, dayExpenseByCategory);
+        }
+    }
+
+    private final TransactionStore store;
+    private final int maxMonths;
+    private final LinkedHashMap<YearMonth, MonthTotals> months;
+
+    // User whose totals are tracked (see UserContext)
+    private int owner;
+    // Bumped by every write and user change; a seed computed across either is not kept
+    private long version;
+    private long hits;
+    private long seeds;
+    private long evictions;
+    private long drops;
+
+    RunningTotals(TransactionStore store, int maxMonths) {
+        this.store = store;
+        this.maxMonths = Math.max(1, maxMonths);
+        this.months = new LinkedHashMap<YearMonth, MonthTotals>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, MonthTotals> eldest) {
+                if (size() > RunningTotals.this.maxMonths) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    int monthIncome(YearMonth ym) throws SQLException {
+        return read(ym, m -> m.income);
+    }
+
+    int monthExpense(YearMonth ym) throws SQLException {
+        return read(ym, m -> m.expense);
+    }
+
+    int dayExpense(LocalDate day) throws SQLException {
+        return read(YearMonth.from(day), m -> m.dayExpense.getOrDefault(day, 0));
+    }
+
+    /**
+     * @return Month expense per category, largest first
+     */
+    Map<String, Integer> monthExpenseByCategory(YearMonth ym) throws SQLException {
+        return read(ym, m -> sortedByAmount(m.expenseByCategory));
+    }
+
+    DashboardSummary summary(YearMonth ym, LocalDate day) throws SQLException {
+        int[] month = read(ym, m -> new int[]{m.income, m.expense});
+        Map<String, Integer> byCategory = read(YearMonth.from(day),
+                m -> sortedByAmount(m.dayExpenseByCategory.getOrDefault(day, Map.of())));
+        int dayExpense = 0;
+        for (int amount : byCategory.values()) {
+            dayExpense += amount;
+        }
+        return new DashboardSummary(ym.toString(), day, month[0], month[1], dayExpense, byCategory);
+    }
+
+    synchronized void applyInsert(Transaction t) {
+        apply(t, t.getAmount());
+    }
+
+    synchronized void applyDelete(Transaction t) {
+        apply(t, -t.getAmount());
+    }
+
+    private void apply(Transaction t, int amount) {
+        checkOwner();
+        version++;
+        MonthTotals m = months.get(YearMonth.from(t.getLocalDate()));
+        if (m != null) {
+            m.add(t.getType(), t.getLocalDate(), t.getCategory(), amount);
+        }
+    }
+
+    /**
+     * Forget a month (e.g. after a write whose effect is unknown); it is re-seeded on the next read.
+     */
+    synchronized void invalidate(YearMonth ym) {
+        checkOwner();
+        version++;
+        if (months.remove(ym) != null) {
+            drops++;
+        }
+    }
+
+    /**
+     * Forget every month (after a write whose month is unknown).
+     */
+    synchronized void invalidateAll() {
+        checkOwner();
+        version++;
+        drops += months.size();
+        months.clear();
+    }
+
+    /**
+     * Recompute every tracked month from the database and replace counters that drifted.
+     *
+     * @return Number of months that had drifted
+     */
+    int reconcile() throws SQLException {
+        List<YearMonth> tracked;
+        synchronized (this) {
+            checkOwner();
+            if (owner == 0) {
+                return 0; // nobody logged in
+            }
+            tracked = new ArrayList<>(months.keySet());
+        }
+        int drifted = 0;
+        for (YearMonth ym : tracked) {
+            long seedVersion;
+            synchronized (this) {
+                seedVersion = version;
+            }
+            MonthTotals fresh = seed(ym);
+            synchronized (this) {
+                MonthTotals current = months.get(ym);
+                if (seedVersion != version || current == null || current.equals(fresh)) {
+                    continue; // raced with a write (checked again next run), evicted, or in sync
+                }
+                drifted++;
+                drops++;
+                System.out.println("Running totals drift in " + ym + ": income " + current.income
+                        + " -> " + fresh.income + ", expense " + current.expense + " -> " + fresh.expense);
+                months.put(ym, fresh);
+            }
+        }
+        return drifted;
+    }
+
+    synchronized CacheStats getStats() {
+        return new CacheStats(months.size(), maxMonths, hits, seeds, evictions, drops);
+    }
+
+    private <R> R read(YearMonth ym, Function<MonthTotals, R> view) throws SQLException {
+        long seedVersion;
+        synchronized (this) {
+            checkOwner();
+            MonthTotals m = months.get(ym);
+            if (m != null) {
+                hits++;
+                return view.apply(m);
+            }
+            seeds++;
+            seedVersion = version;
+        }
+        MonthTotals seeded = seed(ym);
+        synchronized (this) {
+            if (seedVersion == version && !months.containsKey(ym)) {
+                months.put(ym, seeded);
+            }
+            return view.apply(seeded);
+        }
+    }
+
+    // Call with the monitor held
+    private void checkOwner() {
+        int current = UserContext.getUserId();
+        if (current != owner) {
+            owner = current;
+            version++;
+            drops += months.size();
+            months.clear();
+        }
+    }
+
+    private MonthTotals seed(YearMonth ym) throws SQLException {
+        MonthTotals m = new MonthTotals();
+        for (DailyCategoryTotal row : store.getDailyCategoryTotals(ym.atDay(1).toString(), ym.atEndOfMonth().toString())) {
+            m.add(row.getType(), row.getDate(), row.getCategory(), row.getAmount());
+        }
+        return m;
+    }
+
+    private static Map<String, Integer> sortedByAmount(Map<String, Integer> amounts) {
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        amounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+}
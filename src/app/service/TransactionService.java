@@ -1,54 +1,266 @@
 package app.service;
 
-import app.dao.TransactionDAO;
+import app.dao.OfflineJournal;
+import app.dao.TransactionProjection;
+import app.dao.TransactionStore;
+import app.dao.UserContext;
+import app.model.CategoryBreakdown;
+import app.model.DashboardSummary;
 import app.model.Transaction;
+import app.model.TransactionPage;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TransactionService {
 
-    private final TransactionDAO transactionDAO;
+    // Months whose running totals are kept in memory (-Dspendmate.totals.maxMonths)
+    private static final int TOTALS_MAX_MONTHS = Integer.getInteger("spendmate.totals.maxMonths", 24);
+
+    private final TransactionStore transactionDAO;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private final RunningTotals totals;
+    private volatile WriteBehindQueue writeBehind;
 
-    public TransactionService(TransactionDAO dao) {
+    public TransactionService(TransactionStore dao) {
         this.transactionDAO = dao;
+        this.totals = new RunningTotals(dao, TOTALS_MAX_MONTHS);
+    }
+
+    /**
+     * Route {@link #addTransaction} through a write-behind queue (null turns it off).
+     * The queue must write to the same store as this service.
+     */
+    public void setWriteBehind(WriteBehindQueue queue) {
+        this.writeBehind = queue;
     }
 
+    /**
+     * Store a transaction. In write-behind mode this returns once the insert is
+     * journaled; totals include it after the background commit.
+     */
     public void addTransaction(String type, String date, String category, int amount, String memo) throws SQLException {
-        if (!"income".equals(type) && !"expense".equals(type)) {
-            throw new IllegalArgumentException("type must be income or expense");
-        }
+        validateType(type);
         Transaction t = new Transaction(type, date, category, amount, memo);
+        WriteBehindQueue queue = writeBehind;
+        if (queue != null) {
+            int userId = UserContext.requireUserId();
+            queue.submit(userId, t).thenRun(() -> {
+                if (UserContext.getUserId() == userId) {
+                    totals.applyInsert(t);
+                }
+            });
+            return;
+        }
         transactionDAO.insert(t);
+        totals.applyInsert(t);
+    }
+
+    /**
+     * Bulk insert (e.g. imported bank history) in a single database transaction.
+     *
+     * @return Generated ids in iteration order
+     */
+    public List<Integer> addTransactions(Collection<Transaction> transactions) throws SQLException {
+        for (Transaction t : transactions) {
+            validateType(t.getType());
+        }
+        List<Integer> ids;
+        try {
+            ids = transactionDAO.insertAll(transactions);
+        } catch (SQLException | RuntimeException e) {
+            // Nothing should have been stored, but re-seed the months rather than trust that
+            for (Transaction t : transactions) {
+                totals.invalidate(YearMonth.from(t.getLocalDate()));
+            }
+            throw e;
+        }
+        for (Transaction t : transactions) {
+            totals.applyInsert(t);
+        }
+        return ids;
     }
 
     public List<Transaction> getMonthDetails(String yearMonth) throws SQLException {
         return transactionDAO.getDetailsOfMonth(yearMonth);
     }
 
+    /**
+     * Stream a (possibly multi-year) period for exports and reports without
+     * holding it on the heap. Close the stream when done.
+     */
+    public Stream<Transaction> streamPeriod(LocalDate from, LocalDate to) throws SQLException {
+        return transactionDAO.streamByPeriod(from.format(dateFormatter), to.format(dateFormatter));
+    }
+
+    /**
+     * Like {@link #streamPeriod(LocalDate, LocalDate)}, transferring only the
+     * projected columns (e.g. {@link TransactionProjection#AGGREGATE} for amount reports).
+     */
+    public Stream<Transaction> streamPeriod(LocalDate from, LocalDate to, TransactionProjection projection) throws SQLException {
+        return transactionDAO.streamByPeriod(from.format(dateFormatter), to.format(dateFormatter), projection);
+    }
+
+    public void forEachInPeriod(LocalDate from, LocalDate to, Consumer<Transaction> action) throws SQLException {
+        transactionDAO.forEachInPeriod(from.format(dateFormatter), to.format(dateFormatter), action);
+    }
+
+    /**
+     * One page of a month's transactions in (date, id) order.
+     *
+     * @param pageToken Token from the previous page's {@link TransactionPage#getNextToken()}, or null
+     */
+    public TransactionPage getMonthPage(String yearMonth, int pageSize, String pageToken) throws SQLException {
+        YearMonth ym = YearMonth.parse(yearMonth);
+        return getPeriodPage(ym.atDay(1), ym.atEndOfMonth(), pageSize, pageToken);
+    }
+
+    /**
+     * The page of a month's transactions that starts at a row position, found
+     * with one index seek instead of walking the pages before it.
+     *
+     * @param offset 0-based position of the page's first row
+     */
+    public TransactionPage getMonthPageAt(String yearMonth, int offset, int pageSize) throws SQLException {
+        YearMonth ym = YearMonth.parse(yearMonth);
+        String from = ym.atDay(1).format(dateFormatter);
+        String to = ym.atEndOfMonth().format(dateFormatter);
+        String token = transactionDAO.findPageTokenAt(from, to, offset);
+        if (offset > 0 && token == null) {
+            return new TransactionPage(List.of(), null); // the month has fewer rows now
+        }
+        return transactionDAO.findPageByPeriod(from, to, pageSize, token);
+    }
+
+    public int getMonthCount(String yearMonth) throws SQLException {
+        YearMonth ym = YearMonth.parse(yearMonth);
+        return transactionDAO.countByPeriod(ym.atDay(1).format(dateFormatter), ym.atEndOfMonth().format(dateFormatter));
+    }
+
+    public TransactionPage getPeriodPage(LocalDate from, LocalDate to, int pageSize, String pageToken) throws SQLException {
+        return transactionDAO.findPageByPeriod(from.format(dateFormatter), to.format(dateFormatter), pageSize, pageToken);
+    }
+
     public List<Transaction> getDayDetails(LocalDate date) throws SQLException {
         return transactionDAO.getDetailsOfDay(date.format(dateFormatter));
     }
 
     public int getMonthIncome(String yearMonth) throws SQLException {
-        return transactionDAO.getTotalIncomeOfMonth(yearMonth);
+        return totals.monthIncome(YearMonth.parse(yearMonth));
     }
 
     public int getMonthExpense(String yearMonth) throws SQLException {
-        return transactionDAO.getTotalExpenseOfMonth(yearMonth);
+        return totals.monthExpense(YearMonth.parse(yearMonth));
     }
 
     public int getDayExpense(LocalDate date) throws SQLException {
-        return transactionDAO.getTotalExpenseOfDay(date.format(dateFormatter));
+        return totals.dayExpense(date);
+    }
+
+    /**
+     * Amount per month and category over a range of months, e.g. for a
+     * multi-year spending report. Served from the monthly rollup.
+     *
+     * @param fromMonth First month "YYYY-MM" (inclusive)
+     * @param toMonth Last month "YYYY-MM" (inclusive)
+     * @param type "income" or "expense"
+     */
+    public CategoryBreakdown getCategoryBreakdown(String fromMonth, String toMonth, String type) throws SQLException {
+        validateType(type);
+        if (YearMonth.parse(fromMonth).isAfter(YearMonth.parse(toMonth))) {
+            throw new IllegalArgumentException("fromMonth must not be after toMonth");
+        }
+        return transactionDAO.getCategoryBreakdown(fromMonth, toMonth, type);
+    }
+
+    /**
+     * @return Month expense per category, largest first
+     */
+    public Map<String, Integer> getMonthExpenseByCategory(String yearMonth) throws SQLException {
+        return totals.monthExpenseByCategory(YearMonth.parse(yearMonth));
+    }
+
+    /**
+     * Counters of the running totals: hits are reads served from memory, misses
+     * are months seeded from the database, invalidations are months dropped or
+     * corrected by reconciliation.
+     */
+    public CacheStats getTotalsCacheStats() {
+        return totals.getStats();
+    }
+
+    /**
+     * Compare the running totals with the database and correct any drift
+     * (e.g. rows written by another client).
+     *
+     * @return Number of months that had drifted
+     */
+    public int reconcileTotals() throws SQLException {
+        return totals.reconcile();
+    }
+
+    /**
+     * Run {@link #reconcileTotals()} periodically on the shared scheduler.
+     *
+     * @return Handle to cancel the job
+     */
+    public ScheduledFuture<?> startTotalsReconciliation(long periodMillis) {
+        return BackgroundExecutor.scheduler().scheduleWithFixedDelay(() -> {
+            try {
+                reconcileTotals();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Everything the dashboard and budget tabs show, fetched in one query.
+     *
+     * @param yearMonth Month "YYYY-MM"
+     * @param day Day whose expense and per-category breakdown is included
+     */
+    public DashboardSummary getDashboardSummary(String yearMonth, LocalDate day) throws SQLException {
+        return totals.summary(YearMonth.parse(yearMonth), day);
     }
 
     public void deleteTransaction(String date, String category, int amount) throws SQLException {
         transactionDAO.deleteTransaction(date, category, amount);
+        // Whether a row matched (and its type) is not known here; re-seed the month
+        totals.invalidate(YearMonth.from(LocalDate.parse(date)));
     }
     
     public void deleteTransactionById(int id) throws SQLException {
-        transactionDAO.delete(id);
+        Transaction existing;
+        try {
+            existing = transactionDAO.findById(id);
+        } catch (SQLException e) {
+            if (!OfflineJournal.isConnectionFailure(e)) {
+                throw e;
+            }
+            // Offline: the journaled store can still record the delete, just not the row's values
+            existing = null;
+        }
+        if (transactionDAO.delete(id)) {
+            if (existing != null) {
+                totals.applyDelete(existing);
+            } else {
+                totals.invalidateAll();
+            }
+        }
+    }
+
+    private static void validateType(String type) {
+        if (!"income".equals(type) && !"expense".equals(type)) {
+            throw new IllegalArgumentException("type must be income or expense");
+        }
     }
 }
@@ -1,6 +1,7 @@
 package app.service;
 
-import app.dao.UserDAO;
+import app.dao.UserContext;
+import app.dao.UserStore;
 import app.model.User;
 
 /**
@@ -9,10 +10,10 @@ import app.model.User;
  */
 public class UserService {
 
-    private final UserDAO userDAO;
+    private final UserStore userDAO;
     private User currentUser;
 
-    public UserService(UserDAO userDAO) {
+    public UserService(UserStore userDAO) {
         this.userDAO = userDAO;
         this.currentUser = null;
     }
@@ -36,6 +37,7 @@ public class UserService {
         
         if (user != null) {
             this.currentUser = user;
+            UserContext.setUserId(user.getId());
             return new LoginResult(true, "Login successful! Welcome, " + user.getUsername());
         } else {
             return new LoginResult(false, "Invalid username or password");
@@ -111,6 +113,7 @@ public class UserService {
      */
     public void logout() {
         this.currentUser = null;
+        UserContext.clear();
     }
 
     /**
@@ -0,0 +1,299 @@
+package app.service;
+
+import app.dao.MutationJournal;
+import app.dao.TransactionStore;
+import app.dao.UserContext;
+import app.model.Transaction;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional write-behind mode for transaction inserts.
+ *
+ * {@link #submit(int, Transaction)} journals the insert to a local file,
+ * gives it a provisional (negative) id and returns at once. A background
+ * writer groups queued inserts and stores them with one
+ * {@link TransactionStore#insertAll} (one database transaction) per user and
+ * group, flushing when a group reaches batchSize or its oldest insert has
+ * waited maxLatencyMs. After the commit the real id is set on the transaction
+ * and the returned future completes with it.
+ *
+ * Every insert carries a client key, so inserts still in the journal after a
+ * crash are replayed on the next {@link #start()} without duplicating rows
+ * that were committed before the crash. When capacity inserts are waiting,
+ * submit() blocks up to offerTimeoutMs and then fails.
+ *
+ * Settings (-Dspendmate.writeBehind.*): journal (default
+ * spendmate-writebehind.journal), capacity (10000), batchSize (500),
+ * maxLatencyMs (200), offerTimeoutMs (5000), maxRetries (5).
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+    private static final class Pending {
+        final int userId;
+        final Transaction transaction;
+        final boolean replayed;
+        final long queuedNanos = System.nanoTime();
+        final CompletableFuture<Integer> committed = new CompletableFuture<>();
+
+        Pending(int userId, Transaction transaction, boolean replayed) {
+            this.userId = userId;
+            this.transaction = transaction;
+            this.replayed = replayed;
+        }
+    }
+
+    private final TransactionStore store;
+    private final MutationJournal journal;
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final long offerTimeoutMs;
+    private final int maxRetries;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // One permit per insert that may be queued and not yet committed
+    private final Semaphore capacity;
+    private final AtomicInteger provisionalIds = new AtomicInteger();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public WriteBehindQueue(TransactionStore store) {
+        this(store,
+             Paths.get(System.getProperty("spendmate.writeBehind.journal", "spendmate-writebehind.journal")),
+             Integer.getInteger("spendmate.writeBehind.capacity", 10_000),
+             Integer.getInteger("spendmate.writeBehind.batchSize", 500),
+             Long.getLong("spendmate.writeBehind.maxLatencyMs", 200L),
+             Long.getLong("spendmate.writeBehind.offerTimeoutMs", 5_000L),
+             Integer.getInteger("spendmate.writeBehind.maxRetries", 5));
+    }
+
+    public WriteBehindQueue(TransactionStore store, Path journalFile, int capacity, int batchSize,
+                            long maxLatencyMs, long offerTimeoutMs, int maxRetries) {
+        if (capacity < 1 || batchSize < 1 || maxLatencyMs < 0 || offerTimeoutMs < 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("Invalid write-behind settings");
+        }
+        this.store = store;
+        this.journal = new MutationJournal(journalFile);
+        this.capacity = new Semaphore(capacity, true);
+        this.batchSize = batchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Open the journal, queue inserts left over from a previous run and start
+     * the background writer.
+     *
+     * @return Number of journaled inserts queued for replay
+     */
+    public synchronized int start() throws IOException {
+        if (running) {
+            return 0;
+        }
+        List<MutationJournal.Entry> recovered = journal.open();
+        for (MutationJournal.Entry e : recovered) {
+            // Replayed inserts do not count against capacity
+            queue.add(new Pending(e.getUserId(), e.getTransaction(), true));
+        }
+        if (!recovered.isEmpty()) {
+            System.out.println("Write-behind: replaying " + recovered.size() + " journaled inserts");
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "spendmate-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        return recovered.size();
+    }
+
+    /**
+     * Queue an insert for the given user. The transaction gets a client key
+     * and a provisional negative id now, and its real id once committed.
+     *
+     * @return Future completed with the real id after the commit
+     * @throws SQLException if the queue stayed full for offerTimeoutMs or the journal cannot be written
+     */
+    public CompletableFuture<Integer> submit(int userId, Transaction t) throws SQLException {
+        if (!running) {
+            throw new IllegalStateException("Write-behind queue is not running");
+        }
+        try {
+            if (!capacity.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Write-behind queue is full (" + getPendingCount() + " pending)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the write-behind queue", e);
+        }
+        t.setClientKey(UUID.randomUUID().toString());
+        t.setId(-provisionalIds.incrementAndGet());
+        Pending p = new Pending(userId, t, false);
+        try {
+            // On disk before it is acknowledged
+            journal.append(MutationJournal.Entry.insert(userId, t));
+        } catch (IOException e) {
+            capacity.release();
+            throw new SQLException("Cannot write the write-behind journal", e);
+        }
+        queue.add(p);
+        return p.committed;
+    }
+
+    /**
+     * @return Inserts journaled but not yet committed
+     */
+    public int getPendingCount() {
+        return journal.getPending();
+    }
+
+    /**
+     * Stop accepting inserts, flush what is queued (waiting up to timeoutMs)
+     * and close the journal. Anything not flushed stays in the journal. If the
+     * calling thread is interrupted, the flush is abandoned the same way as on
+     * timeout and the thread's interrupt flag is set again.
+     */
+    public void close(long timeoutMs) throws IOException {
+        Thread w;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            w = writer;
+        }
+        try {
+            w.join(timeoutMs);
+            if (w.isAlive()) {
+                w.interrupt();
+                w.join(1000);
+            }
+        } catch (InterruptedException e) {
+            w.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(10_000);
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Group commit: wait for more inserts until the oldest has waited maxLatency
+                long deadline = first.queuedNanos + maxLatencyNanos;
+                while (batch.size() < batchSize) {
+                    long wait = running ? deadline - System.nanoTime() : 0;
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                return; // close() gave up waiting; unflushed inserts stay in the journal
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        Map<Integer, List<Pending>> byUser = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            byUser.computeIfAbsent(p.userId, id -> new ArrayList<>()).add(p);
+        }
+        for (Map.Entry<Integer, List<Pending>> group : byUser.entrySet()) {
+            flushGroup(group.getKey(), group.getValue());
+        }
+    }
+
+    private void flushGroup(int userId, List<Pending> group) throws InterruptedException {
+        boolean checkExisting = group.stream().anyMatch(p -> p.replayed);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                // After a failed attempt the commit may still have happened; never insert a key twice
+                storeGroup(userId, group, checkExisting || attempt > 0);
+                List<String> keys = new ArrayList<>(group.size());
+                for (Pending p : group) {
+                    keys.add(p.transaction.getClientKey());
+                }
+                try {
+                    journal.markDone(keys);
+                } catch (IOException e) {
+                    // Committed anyway; a replay of these entries finds their keys and skips them
+                    System.out.println("Write-behind: cannot mark inserts committed: " + e.getMessage());
+                }
+                for (Pending p : group) {
+                    release(p);
+                    p.committed.complete(p.transaction.getId());
+                }
+                return;
+            } catch (SQLException | RuntimeException e) {
+                if (attempt >= maxRetries) {
+                    System.out.println("Write-behind: giving up on " + group.size() + " inserts after "
+                            + (attempt + 1) + " attempts (kept in the journal for the next start): " + e.getMessage());
+                    for (Pending p : group) {
+                        release(p);
+                        p.committed.completeExceptionally(e);
+                    }
+                    return;
+                }
+                Thread.sleep(Math.min(30_000L, 500L << attempt));
+            }
+        }
+    }
+
+    private void storeGroup(int userId, List<Pending> group, boolean checkExisting) throws SQLException {
+        UserContext.callAs(userId, () -> {
+            List<Transaction> toInsert = new ArrayList<>(group.size());
+            Map<String, Integer> existing = Map.of();
+            if (checkExisting) {
+                List<String> keys = new ArrayList<>(group.size());
+                for (Pending p : group) {
+                    keys.add(p.transaction.getClientKey());
+                }
+                existing = store.findIdsByClientKeys(keys);
+            }
+            for (Pending p : group) {
+                Integer id = existing.get(p.transaction.getClientKey());
+                if (id != null) {
+                    p.transaction.setId(id);
+                } else {
+                    toInsert.add(p.transaction);
+                }
+            }
+            store.insertAll(toInsert);
+            return null;
+        });
+    }
+
+    private void release(Pending p) {
+        if (!p.replayed) {
+            capacity.release();
+        }
+    }
+}
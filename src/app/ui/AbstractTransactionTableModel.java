@@ -3,28 +3,20 @@ package app.ui;
 import app.model.Transaction;
 
 import javax.swing.table.AbstractTableModel;
-import java.util.ArrayList;
-import java.util.List;
 
-public class TransactionTableModel extends AbstractTableModel {
+/**
+ * Columns and cell values shared by the transaction tables; subclasses decide
+ * where the rows come from.
+ */
+public abstract class AbstractTransactionTableModel extends AbstractTableModel {
 
     private final String[] columns = {"ID", "Type", "Date", "Category", "Amount", "Memo"};
-    private List<Transaction> data = new ArrayList<>();
 
-    public void setData(List<Transaction> data) {
-        this.data = data != null ? data : new ArrayList<>();
-        fireTableDataChanged();
-    }
-
-    public Transaction getTransactionAt(int row) {
-        if (row < 0 || row >= data.size()) return null;
-        return data.get(row);
-    }
-
-    @Override
-    public int getRowCount() {
-        return data.size();
-    }
+    /**
+     * @return The transaction shown in the row, or null if it is out of range
+     *         (or, in models that load rows lazily, not loaded yet)
+     */
+    public abstract Transaction getTransactionAt(int row);
 
     @Override
     public int getColumnCount() {
@@ -38,7 +30,10 @@ public class TransactionTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Transaction t = data.get(rowIndex);
+        Transaction t = getTransactionAt(rowIndex);
+        if (t == null) {
+            return columnIndex == 1 ? "…" : "";
+        }
         return switch (columnIndex) {
             case 0 -> t.getId();
             case 1 -> t.getType();
@@ -0,0 +1,137 @@
+package app.ui;
+
+import app.service.BackgroundExecutor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs service calls off the Event Dispatch Thread and applies their results on it.
+ *
+ * Each panel owns one loader. Starting a new load supersedes the previous one:
+ * a stale result (e.g. for a month the user has already switched away from) is
+ * dropped instead of overwriting newer data. The loading listener is told when
+ * the panel starts and stops waiting, so it can show its own loading state.
+ *
+ * All methods must be called on the EDT.
+ */
+public class AsyncLoader {
+
+    /**
+     * A blocking call to run in the background.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    private final Consumer<Boolean> loadingListener;
+    private int generation;
+    private Future<?> pending;
+
+    /**
+     * @param loadingListener Called on the EDT with true when a load starts and
+     *                        false when the latest one finishes (may be null)
+     */
+    public AsyncLoader(Consumer<Boolean> loadingListener) {
+        this.loadingListener = loadingListener;
+    }
+
+    /**
+     * Start a load, superseding any load still in flight.
+     *
+     * @param task Background work (runs off the EDT)
+     * @param onSuccess Applied on the EDT with the result, unless superseded
+     * @param onFailure Applied on the EDT with the failure, unless superseded
+     */
+    public <T> void load(Task<T> task, Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        checkEdt();
+        cancelPending();
+        int ticket = ++generation;
+        setLoading(true);
+        pending = BackgroundExecutor.get().submit(() -> {
+            T result;
+            try {
+                result = task.call();
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> complete(ticket, () -> onFailure.accept(e)));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> complete(ticket, () -> onSuccess.accept(result)));
+        });
+    }
+
+    /**
+     * Wait for work already started elsewhere (e.g. by
+     * {@link app.service.AsyncTransactionService}), superseding any load still
+     * in flight. Several futures combined into one overlap their queries.
+     *
+     * @param future Result to wait for (cancelled if superseded)
+     * @param onSuccess Applied on the EDT with the result, unless superseded
+     * @param onFailure Applied on the EDT with the failure, unless superseded
+     */
+    public <T> void load(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        checkEdt();
+        cancelPending();
+        int ticket = ++generation;
+        setLoading(true);
+        pending = future;
+        future.whenComplete((result, failure) -> SwingUtilities.invokeLater(() -> complete(ticket,
+                failure == null ? () -> onSuccess.accept(result) : () -> onFailure.accept(unwrap(failure)))));
+    }
+
+    /**
+     * Drop the load in flight, if any. Its result will not be applied.
+     */
+    public void cancel() {
+        checkEdt();
+        if (pending != null) {
+            cancelPending();
+            generation++;
+            setLoading(false);
+        }
+    }
+
+    public boolean isLoading() {
+        return pending != null;
+    }
+
+    private void complete(int ticket, Runnable apply) {
+        if (ticket != generation) {
+            return; // superseded by a newer load
+        }
+        pending = null;
+        setLoading(false);
+        apply.run();
+    }
+
+    // The exception the service call threw, as passed to the Task variant
+    private static Exception unwrap(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        return cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            // No interrupt: a task already inside JDBC finishes and its result is discarded
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private void setLoading(boolean loading) {
+        if (loadingListener != null) {
+            loadingListener.accept(loading);
+        }
+    }
+
+    private static void checkEdt() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("AsyncLoader must be used on the Event Dispatch Thread");
+        }
+    }
+}
@@ -1,23 +1,29 @@
 package app.ui;
 
-import app.service.BudgetService;
-import app.service.TransactionService;
+import app.model.DashboardSummary;
+import app.service.AsyncBudgetService;
+import app.service.AsyncTransactionService;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 public class BudgetPanel extends JPanel {
 
-    private final BudgetService budgetService;
-    private final TransactionService transactionService;
+    private final AsyncBudgetService budgetService;
+    private final AsyncTransactionService transactionService;
     private JLabel budgetValueLabel;
     private JLabel spentValueLabel;
     private JLabel remainingValueLabel;
     private JProgressBar budgetProgressBar;
     private JPanel progressPanel;
+    private JButton setBudgetBtn;
+    private final AsyncLoader loader = new AsyncLoader(this::setLoading);
+    // Separate from loader so that a refresh cannot supersede a save
+    private final AsyncLoader saveLoader = new AsyncLoader(saving -> setBudgetBtn.setEnabled(!saving));
 
-    public BudgetPanel(BudgetService budgetService, TransactionService transactionService) {
+    public BudgetPanel(AsyncBudgetService budgetService, AsyncTransactionService transactionService) {
         this.budgetService = budgetService;
         this.transactionService = transactionService;
         initUI();
@@ -77,7 +83,7 @@ public class BudgetPanel extends JPanel {
         buttonPanel.setOpaque(false);
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(UIStyles.PADDING_MD, 0, 0, 0));
         
-        JButton setBudgetBtn = UIStyles.createPrimaryButton("💵  Set Monthly Budget");
+        setBudgetBtn = UIStyles.createPrimaryButton("💵  Set Monthly Budget");
         setBudgetBtn.addActionListener(e -> setBudget());
         buttonPanel.add(setBudgetBtn);
         
@@ -202,68 +208,87 @@ public class BudgetPanel extends JPanel {
     }
 
     public void refreshInfo() {
-        try {
-            LocalDate now = LocalDate.now();
-            String ym = now.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-            
-            Integer budgetLimit = budgetService.getBudgetLimit(ym);
-            int budget = (budgetLimit != null) ? budgetLimit : 0;
-            int expense = transactionService.getMonthExpense(ym);
-            int remaining = budget - expense;
-
-            budgetValueLabel.setText("$" + String.format("%,d", budget));
-            spentValueLabel.setText("$" + String.format("%,d", expense));
-            remainingValueLabel.setText("$" + String.format("%,d", remaining));
-            
-            // Update colors based on status
-            if (remaining < 0) {
-                remainingValueLabel.setForeground(UIStyles.DANGER);
-            } else if (remaining < budget * 0.2) {
-                remainingValueLabel.setForeground(UIStyles.WARNING);
-            } else {
-                remainingValueLabel.setForeground(UIStyles.SUCCESS);
-            }
+        String ym = currentMonth();
+        showFigures(ym, transactionService.getMonthExpenseAsync(ym));
+    }
 
-            // Update progress bar
-            if (budget > 0) {
-                int percentage = Math.min(100, (expense * 100) / budget);
-                budgetProgressBar.setValue(percentage);
-            } else {
-                budgetProgressBar.setValue(0);
-            }
-            
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Refresh the budget cards, reusing the month expense from a dashboard
+     * summary being fetched for the same month instead of querying it again.
+     */
+    public void refreshInfo(CompletableFuture<DashboardSummary> summary) {
+        String ym = currentMonth();
+        showFigures(ym, summary.thenCompose(s -> ym.equals(s.getYearMonth())
+                ? CompletableFuture.completedFuture(s.getMonthExpense())
+                : transactionService.getMonthExpenseAsync(ym)));
+    }
+
+    private void showFigures(String ym, CompletableFuture<Integer> expense) {
+        // The limit is read while the expense is still loading: both take max(latency), not the sum
+        loader.load(budgetService.getBudgetLimitAsync(ym).thenCombine(expense,
+                        (limit, spent) -> new int[]{limit != null ? limit : 0, spent}),
+                figures -> showFigures(figures[0], figures[1]), Throwable::printStackTrace);
+    }
+
+    private static String currentMonth() {
+        return LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+    }
+
+    private void showFigures(int budget, int expense) {
+        int remaining = budget - expense;
+
+        budgetValueLabel.setText("$" + String.format("%,d", budget));
+        spentValueLabel.setText("$" + String.format("%,d", expense));
+        remainingValueLabel.setText("$" + String.format("%,d", remaining));
+        
+        // Update colors based on status
+        if (remaining < 0) {
+            remainingValueLabel.setForeground(UIStyles.DANGER);
+        } else if (remaining < budget * 0.2) {
+            remainingValueLabel.setForeground(UIStyles.WARNING);
+        } else {
+            remainingValueLabel.setForeground(UIStyles.SUCCESS);
+        }
+
+        // Update progress bar
+        if (budget > 0) {
+            int percentage = Math.min(100, (expense * 100) / budget);
+            budgetProgressBar.setValue(percentage);
+        } else {
+            budgetProgressBar.setValue(0);
         }
     }
 
+    private void setLoading(boolean loading) {
+        setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
+
     private void setBudget() {
         String input = JOptionPane.showInputDialog(this, 
             "Enter your monthly budget:", 
             "Set Budget", 
             JOptionPane.PLAIN_MESSAGE);
         if (input != null && !input.trim().isEmpty()) {
+            int amount;
             try {
-                int amount = Integer.parseInt(input.trim());
-                LocalDate now = LocalDate.now();
-                String ym = now.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-                budgetService.saveMonthlyBudget(ym, amount);
-                refreshInfo();
-                JOptionPane.showMessageDialog(this, 
-                    "Budget set successfully!", 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
+                amount = Integer.parseInt(input.trim());
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, 
                     "Please enter a valid number.", 
                     "Invalid Input", 
                     JOptionPane.WARNING_MESSAGE);
-            } catch (Exception ex) {
+                return;
+            }
+            saveLoader.load(budgetService.saveMonthlyBudgetAsync(currentMonth(), amount), ignored -> {
+                refreshInfo();
                 JOptionPane.showMessageDialog(this, 
+                    "Budget set successfully!", 
+                    "Success", 
+                    JOptionPane.INFORMATION_MESSAGE);
+            }, ex -> JOptionPane.showMessageDialog(this, 
                     "Database error: " + ex.getMessage(), 
                     "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.ERROR_MESSAGE));
         }
     }
 }
@@ -1,26 +1,26 @@
 package app.ui;
 
-import app.model.Transaction;
-import app.service.TransactionService;
+import app.model.DashboardSummary;
+import app.service.AsyncTransactionService;
 import java.awt.*;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.List;
+import java.util.Map;
 import javax.swing.*;
 
 public class DashboardPanel extends JPanel {
 
-    private final TransactionService transactionService;
+    private final AsyncTransactionService transactionService;
     private JLabel monthIncomeValue;
     private JLabel monthExpenseValue;
     private JLabel todayExpenseValue;
     private JLabel balanceValue;
     private JPanel categoryPanel;
     private JPanel statsPanel;
+    private JLabel subtitleLabel;
+    private final AsyncLoader loader = new AsyncLoader(this::setLoading);
 
-    public DashboardPanel(TransactionService transactionService) {
+    public DashboardPanel(AsyncTransactionService transactionService) {
         this.transactionService = transactionService;
         initUI();
         refreshData();
@@ -39,7 +39,7 @@ public class DashboardPanel extends JPanel {
         titleLabel.setFont(UIStyles.FONT_TITLE);
         titleLabel.setForeground(UIStyles.TEXT_PRIMARY);
         
-        JLabel subtitleLabel = new JLabel("Track your income, expenses, and budget at a glance");
+        subtitleLabel = new JLabel("Track your income, expenses, and budget at a glance");
         subtitleLabel.setFont(UIStyles.FONT_BODY);
         subtitleLabel.setForeground(UIStyles.TEXT_SECONDARY);
         
@@ -174,45 +174,49 @@ public class DashboardPanel extends JPanel {
     }
 
     public void refreshData() {
-        try {
-            LocalDate today = LocalDate.now();
-            DateTimeFormatter ymFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            String ym = today.format(ymFormatter);
+        LocalDate today = LocalDate.now();
+        DateTimeFormatter ymFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
+        String ym = today.format(ymFormatter);
 
-            int monthIncome = transactionService.getMonthIncome(ym);
-            monthIncomeValue.setText("$" + String.format("%,d", monthIncome));
+        loader.load(transactionService.getDashboardSummaryAsync(ym, today),
+                this::showSummary,
+                Throwable::printStackTrace);
+    }
 
-            int monthExpense = transactionService.getMonthExpense(ym);
-            monthExpenseValue.setText("$" + String.format("%,d", monthExpense));
+    /**
+     * Drop a refresh in flight (a newer summary is about to be shown).
+     */
+    public void cancelRefresh() {
+        loader.cancel();
+    }
 
-            int todayExpense = transactionService.getDayExpense(today);
-            todayExpenseValue.setText("$" + String.format("%,d", todayExpense));
+    private void setLoading(boolean loading) {
+        subtitleLabel.setText(loading
+                ? "Loading latest figures..."
+                : "Track your income, expenses, and budget at a glance");
+        setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
 
-            int balance = monthIncome - monthExpense;
-            balanceValue.setText("$" + String.format("%,d", balance));
-            balanceValue.setForeground(balance >= 0 ? UIStyles.SUCCESS : UIStyles.DANGER);
+    /**
+     * Render an already fetched summary (shared with the budget tab).
+     */
+    public void showSummary(DashboardSummary summary) {
+        monthIncomeValue.setText("$" + String.format("%,d", summary.getMonthIncome()));
+        monthExpenseValue.setText("$" + String.format("%,d", summary.getMonthExpense()));
+        todayExpenseValue.setText("$" + String.format("%,d", summary.getDayExpense()));
 
-            updateCategoryBreakdown(today);
+        int balance = summary.getBalance();
+        balanceValue.setText("$" + String.format("%,d", balance));
+        balanceValue.setForeground(balance >= 0 ? UIStyles.SUCCESS : UIStyles.DANGER);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        updateCategoryBreakdown(summary);
     }
 
-    private void updateCategoryBreakdown(LocalDate date) throws SQLException {
+    private void updateCategoryBreakdown(DashboardSummary summary) {
         categoryPanel.removeAll();
 
-        List<Transaction> dayTransactions = transactionService.getDayDetails(date);
-        Map<String, Integer> categoryMap = new LinkedHashMap<>();
-
-        int totalExpense = 0;
-        for (Transaction tx : dayTransactions) {
-            if ("expense".equals(tx.getType())) {
-                String category = tx.getCategory();
-                categoryMap.put(category, categoryMap.getOrDefault(category, 0) + tx.getAmount());
-                totalExpense += tx.getAmount();
-            }
-        }
+        Map<String, Integer> categoryMap = summary.getDayExpenseByCategory();
+        int totalExpense = summary.getDayExpense();
 
         if (categoryMap.isEmpty()) {
             JPanel emptyPanel = new JPanel(new BorderLayout());
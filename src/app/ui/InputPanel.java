@@ -6,6 +6,7 @@ import app.service.TransactionService;
 import java.awt.*;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.time.format.DateTimeFormatter;
 import javax.swing.*;
 
@@ -19,6 +20,8 @@ public class InputPanel extends JPanel {
     private JComboBox<String> categoryCombo;
     private JTextField amountField;
     private JTextField memoField;
+    private JButton saveBtn;
+    private final AsyncLoader saver = new AsyncLoader(this::setSaving);
 
     public InputPanel(TransactionService transactionService) {
         this.transactionService = transactionService;
@@ -103,7 +106,7 @@ public class InputPanel extends JPanel {
         formPanel.add(Box.createVerticalStrut(UIStyles.PADDING_LG));
 
         // Submit button
-        JButton saveBtn = UIStyles.createSuccessButton("✓  Add Transaction");
+        saveBtn = UIStyles.createSuccessButton("✓  Add Transaction");
         saveBtn.setPreferredSize(new Dimension(0, 48));
         saveBtn.setMaximumSize(new Dimension(Integer.MAX_VALUE, 48));
         saveBtn.addActionListener(e -> addTransaction());
@@ -166,15 +169,25 @@ public class InputPanel extends JPanel {
     }
 
     private void addTransaction() {
+        String type = (String) typeCombo.getSelectedItem();
+        String date = dateField.getText();
+        String category = (String) categoryCombo.getSelectedItem();
+        String memo = memoField.getText();
+        int amount;
         try {
-            String type = (String) typeCombo.getSelectedItem();
-            String date = dateField.getText();
-            String category = (String) categoryCombo.getSelectedItem();
-            int amount = Integer.parseInt(amountField.getText());
-            String memo = memoField.getText();
+            amount = Integer.parseInt(amountField.getText());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, 
+                "Please enter a valid number for amount.",
+                "Invalid Input", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
+        saver.load(() -> {
             transactionService.addTransaction(type, date, category, amount, memo);
-            
+            return null;
+        }, ignored -> {
             // Success dialog with custom styling
             JOptionPane.showMessageDialog(this, 
                 "Transaction saved successfully!", 
@@ -189,16 +202,31 @@ public class InputPanel extends JPanel {
             if (onDataChanged != null) {
                 onDataChanged.run();
             }
-        } catch (NumberFormatException ex) {
+        }, this::showSaveError);
+    }
+
+    private void showSaveError(Exception ex) {
+        if (ex instanceof DateTimeParseException) {
             JOptionPane.showMessageDialog(this, 
-                "Please enter a valid number for amount.",
+                "Please enter the date as YYYY-MM-DD.",
                 "Invalid Input", 
                 JOptionPane.WARNING_MESSAGE);
-        } catch (SQLException ex) {
+        } else if (ex instanceof SQLException) {
             JOptionPane.showMessageDialog(this, 
                 "Database error: " + ex.getMessage(),
                 "Error", 
                 JOptionPane.ERROR_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                ex.getMessage(),
+                "Invalid Input", 
+                JOptionPane.WARNING_MESSAGE);
         }
     }
+
+    // Disabled while saving so a double click cannot insert the row twice
+    private void setSaving(boolean saving) {
+        saveBtn.setEnabled(!saving);
+        setCursor(saving ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
 }
@@ -3,21 +3,22 @@ package app.ui;
 import app.model.Transaction;
 import app.service.TransactionService;
 import java.awt.*;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 
 public class ListPanel extends JPanel {
 
     private final TransactionService transactionService;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private PagedTransactionTableModel tableModel;
     private JComboBox<String> monthCombo;
+    private JButton deleteBtn;
+    // Month switches supersede each other; deletes run on their own loader
+    private final AsyncLoader monthLoader = new AsyncLoader(this::setLoading);
+    private final AsyncLoader deleteLoader = new AsyncLoader(loading -> deleteBtn.setEnabled(!loading));
 
     public ListPanel(TransactionService transactionService) {
         this.transactionService = transactionService;
@@ -94,13 +95,8 @@ public class ListPanel extends JPanel {
         card.add(headerPanel, BorderLayout.NORTH);
 
         // Table
-        String[] columns = {"ID", "Type", "Date", "Category", "Amount", "Memo"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Rows are fetched page by page as they scroll into view
+        tableModel = new PagedTransactionTableModel(transactionService);
         
         table = new JTable(tableModel);
         table.setFont(UIStyles.FONT_BODY);
@@ -145,6 +141,9 @@ public class ListPanel extends JPanel {
                     setFont(UIStyles.FONT_BODY_BOLD);
                 } else if (column == 4) {
                     // Amount column
+                    if (value instanceof Integer) {
+                        setText("$" + String.format("%,d", value));
+                    }
                     c.setForeground(UIStyles.TEXT_PRIMARY);
                     setFont(UIStyles.FONT_BODY_BOLD);
                 } else {
@@ -176,7 +175,7 @@ public class ListPanel extends JPanel {
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, UIStyles.PADDING_MD, UIStyles.PADDING_SM));
         bottomPanel.setOpaque(false);
         
-        JButton deleteBtn = UIStyles.createDangerButton("🗑️  Delete Selected");
+        deleteBtn = UIStyles.createDangerButton("🗑️  Delete Selected");
         deleteBtn.addActionListener(e -> deleteSelectedTransaction());
         
         bottomPanel.add(deleteBtn);
@@ -195,25 +194,23 @@ public class ListPanel extends JPanel {
     }
 
     public void reloadMonth() {
-        tableModel.setRowCount(0);
         String selectedMonth = (String) monthCombo.getSelectedItem();
-        if (selectedMonth == null) return;
-
-        try {
-            List<Transaction> transactions = transactionService.getMonthDetails(selectedMonth);
-            for (Transaction t : transactions) {
-                tableModel.addRow(new Object[]{
-                    t.getId(),
-                    t.getType(),
-                    t.getDate(),
-                    t.getCategory(),
-                    "$" + String.format("%,d", t.getAmount()),
-                    t.getMemo()
-                });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage());
+        if (selectedMonth == null) {
+            tableModel.setMonth(null, 0);
+            return;
         }
+
+        // Only the count is loaded here; the model fetches visible pages on demand
+        monthLoader.load(() -> transactionService.getMonthCount(selectedMonth),
+                count -> tableModel.setMonth(selectedMonth, count),
+                e -> {
+                    tableModel.setMonth(null, 0);
+                    JOptionPane.showMessageDialog(this, "Error loading data: " + e.getMessage());
+                });
+    }
+
+    private void setLoading(boolean loading) {
+        setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
     }
     
     private void deleteSelectedTransaction() {
@@ -233,20 +230,23 @@ public class ListPanel extends JPanel {
             JOptionPane.WARNING_MESSAGE);
             
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                int id = (int) tableModel.getValueAt(selectedRow, 0);
-                transactionService.deleteTransactionById(id);
+            Transaction selected = tableModel.getTransactionAt(table.convertRowIndexToModel(selectedRow));
+            if (selected == null) {
+                return; // row still loading
+            }
+            deleteLoader.load(() -> {
+                transactionService.deleteTransactionById(selected.getId());
+                return null;
+            }, ignored -> {
                 JOptionPane.showMessageDialog(this, 
                     "Transaction deleted successfully!", 
                     "Success", 
                     JOptionPane.INFORMATION_MESSAGE);
                 reloadMonth();
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, 
+            }, e -> JOptionPane.showMessageDialog(this, 
                     "Error deleting transaction: " + e.getMessage(),
                     "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.ERROR_MESSAGE));
         }
     }
 }
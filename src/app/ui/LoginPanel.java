@@ -31,6 +31,11 @@ public class LoginPanel extends JPanel {
     private JPasswordField signupConfirmPasswordField;
     private JLabel signupMessageLabel;
     
+    private JButton loginButton;
+    private JButton signupButton;
+    private final AsyncLoader loginLoader = new AsyncLoader(loading -> loginButton.setEnabled(!loading));
+    private final AsyncLoader signupLoader = new AsyncLoader(loading -> signupButton.setEnabled(!loading));
+    
     // Callback for successful login
     private Runnable onLoginSuccess;
 
@@ -129,7 +134,7 @@ public class LoginPanel extends JPanel {
         loginMessageLabel.setFont(UIStyles.FONT_SMALL);
 
         // Login button
-        JButton loginButton = createPrimaryButton("Sign In");
+        loginButton = createPrimaryButton("Sign In");
         loginButton.addActionListener(e -> performLogin());
 
         // Sign up link
@@ -237,7 +242,7 @@ public class LoginPanel extends JPanel {
         signupMessageLabel.setFont(UIStyles.FONT_SMALL);
 
         // Signup button
-        JButton signupButton = createPrimaryButton("Create Account");
+        signupButton = createPrimaryButton("Create Account");
         signupButton.addActionListener(e -> performSignup());
 
         // Login link
@@ -390,8 +395,17 @@ public class LoginPanel extends JPanel {
         String username = loginUsernameField.getText();
         String password = new String(loginPasswordField.getPassword());
         
-        LoginResult result = userService.login(username, password);
-        
+        loginMessageLabel.setForeground(UIStyles.TEXT_SECONDARY);
+        loginMessageLabel.setText("Signing in...");
+        loginLoader.load(() -> userService.login(username, password),
+                this::showLoginResult,
+                ex -> {
+                    loginMessageLabel.setForeground(UIStyles.DANGER);
+                    loginMessageLabel.setText("Login failed: " + ex.getMessage());
+                });
+    }
+
+    private void showLoginResult(LoginResult result) {
         if (result.isSuccess()) {
             loginMessageLabel.setForeground(UIStyles.SUCCESS);
             loginMessageLabel.setText(result.getMessage());
@@ -416,8 +430,17 @@ public class LoginPanel extends JPanel {
         String password = new String(signupPasswordField.getPassword());
         String confirmPassword = new String(signupConfirmPasswordField.getPassword());
         
-        SignupResult result = userService.signup(username, password, confirmPassword, email);
-        
+        signupMessageLabel.setForeground(UIStyles.TEXT_SECONDARY);
+        signupMessageLabel.setText("Creating account...");
+        signupLoader.load(() -> userService.signup(username, password, confirmPassword, email),
+                result -> showSignupResult(result, username),
+                ex -> {
+                    signupMessageLabel.setForeground(UIStyles.DANGER);
+                    signupMessageLabel.setText("Sign up failed: " + ex.getMessage());
+                });
+    }
+
+    private void showSignupResult(SignupResult result, String username) {
         if (result.isSuccess()) {
             signupMessageLabel.setForeground(UIStyles.SUCCESS);
             signupMessageLabel.setText(result.getMessage());
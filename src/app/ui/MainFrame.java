@@ -1,16 +1,23 @@
 package app.ui;
 
+import app.model.DashboardSummary;
 import app.model.User;
+import app.service.AsyncBudgetService;
+import app.service.AsyncTransactionService;
 import app.service.BudgetService;
 import app.service.TransactionService;
 import app.service.UserService;
 import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 
 public class MainFrame extends JFrame {
 
     private final TransactionService transactionService;
-    private final BudgetService budgetService;
+    private final AsyncTransactionService asyncTransactions;
+    private final AsyncBudgetService asyncBudgets;
     private UserService userService;
     private User currentUser;
     private InputPanel inputPanel;
@@ -18,10 +25,12 @@ public class MainFrame extends JFrame {
     private BudgetPanel budgetPanel;
     private DashboardPanel dashboardPanel;
     private JLabel userLabel;
+    private final AsyncLoader summaryLoader = new AsyncLoader(null);
 
     public MainFrame(TransactionService transactionService, BudgetService budgetService) {
         this.transactionService = transactionService;
-        this.budgetService = budgetService;
+        this.asyncTransactions = new AsyncTransactionService(transactionService);
+        this.asyncBudgets = new AsyncBudgetService(budgetService);
         UIStyles.applyGlobalStyles();
         initUI();
     }
@@ -61,7 +70,7 @@ public class MainFrame extends JFrame {
         JTabbedPane tabbedPane = createModernTabbedPane();
         
         // Dashboard Panel
-        dashboardPanel = new DashboardPanel(transactionService);
+        dashboardPanel = new DashboardPanel(asyncTransactions);
         tabbedPane.addTab("  Dashboard  ", dashboardPanel);
 
         // Transactions Panel
@@ -69,7 +78,7 @@ public class MainFrame extends JFrame {
         tabbedPane.addTab("  Transactions  ", transactionsPanel);
 
         // Budget Panel
-        budgetPanel = new BudgetPanel(budgetService, transactionService);
+        budgetPanel = new BudgetPanel(asyncBudgets, asyncTransactions);
         tabbedPane.addTab("  Budget  ", budgetPanel);
 
         // Wrap tabbed pane with padding
@@ -176,6 +185,20 @@ public class MainFrame extends JFrame {
         }
     }
 
+    /**
+     * Fetch the dashboard summary once and hand it to both the dashboard and budget tabs.
+     */
+    private void refreshSummaries() {
+        LocalDate today = LocalDate.now();
+        String ym = today.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+        // An older dashboard refresh still in flight must not overwrite the new summary
+        dashboardPanel.cancelRefresh();
+        CompletableFuture<DashboardSummary> summary = asyncTransactions.getDashboardSummaryAsync(ym, today);
+        summaryLoader.load(summary, dashboardPanel::showSummary, Throwable::printStackTrace);
+        // Started now, so the budget limit is read while the summary is still loading
+        budgetPanel.refreshInfo(summary);
+    }
+
     private JTabbedPane createModernTabbedPane() {
         JTabbedPane tabbedPane = new JTabbedPane(JTabbedPane.TOP);
         tabbedPane.setFont(UIStyles.FONT_HEADING);
@@ -194,8 +217,7 @@ public class MainFrame extends JFrame {
         inputPanel = new InputPanel(transactionService);
         inputPanel.setOnDataChanged(() -> {
             listPanel.reloadMonth();
-            budgetPanel.refreshInfo();
-            dashboardPanel.refreshData();
+            refreshSummaries();
         });
 
         listPanel = new ListPanel(transactionService);
@@ -0,0 +1,202 @@
+package app.ui;
+
+import app.model.Transaction;
+import app.model.TransactionPage;
+import app.service.TransactionService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/**
+ * Virtualized table model for a month of transactions.
+ *
+ * Only the row count is known up front. Rows are fetched from the service
+ * page by page when the table asks for them, and a bounded LRU of pages is
+ * kept, so memory stays constant however long the month is. Rows that are not
+ * loaded yet render as placeholders until their page arrives.
+ *
+ * Scrolling on to the next page uses the previous page's keyset token; a jump
+ * to a page with no known token seeks to its first row by position (one index
+ * query) instead of walking the pages before it. A page whose fetch failed is
+ * retried after a delay that doubles with every failure, not on every repaint.
+ *
+ * All state is owned by the EDT; page fetches run in SwingWorkers.
+ */
+public class PagedTransactionTableModel extends AbstractTransactionTableModel {
+
+    static final int PAGE_SIZE = 200;
+    static final int MAX_CACHED_PAGES = 25;
+    static final int RETRY_DELAY_MS = 1_000;
+    static final int MAX_RETRY_DELAY_MS = 60_000;
+
+    private final TransactionService transactionService;
+
+    private String yearMonth;
+    private int rowCount;
+    private int generation;
+
+    // page index -> rows, least recently used first
+    private final LinkedHashMap<Integer, List<Transaction>> pages =
+            new LinkedHashMap<Integer, List<Transaction>>(MAX_CACHED_PAGES + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<Transaction>> eldest) {
+                    return size() > MAX_CACHED_PAGES;
+                }
+            };
+    // page index -> keyset token that fetches it, learned from the page before it
+    private final Map<Integer, String> pageTokens = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    // page index -> consecutive failed fetches, and when the next attempt is allowed
+    private final Map<Integer, Integer> failures = new HashMap<>();
+    private final Map<Integer, Long> retryAt = new HashMap<>();
+
+    public PagedTransactionTableModel(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * Switch to another month. Drops every cached page; rows are fetched again on demand.
+     *
+     * @param yearMonth Month "YYYY-MM", or null to clear the table
+     * @param rowCount Number of transactions in the month
+     */
+    public void setMonth(String yearMonth, int rowCount) {
+        this.yearMonth = yearMonth;
+        this.rowCount = yearMonth != null ? rowCount : 0;
+        this.generation++;
+        pages.clear();
+        pageTokens.clear();
+        loading.clear();
+        failures.clear();
+        retryAt.clear();
+        fireTableDataChanged();
+    }
+
+    public String getYearMonth() {
+        return yearMonth;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public Transaction getTransactionAt(int row) {
+        if (row < 0 || row >= rowCount) return null;
+        int pageIndex = row / PAGE_SIZE;
+        List<Transaction> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = row % PAGE_SIZE;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * @return Number of pages currently held in memory
+     */
+    public int getCachedPageCount() {
+        return pages.size();
+    }
+
+    private void requestPage(int pageIndex) {
+        if (yearMonth == null || loading.contains(pageIndex)) {
+            return;
+        }
+        Long due = retryAt.get(pageIndex);
+        if (due != null && System.currentTimeMillis() < due) {
+            return; // failed recently; the retry timer repaints the rows when it is due
+        }
+        loading.add(pageIndex);
+        new PageLoader(generation, yearMonth, pageIndex, pageTokens.get(pageIndex)).execute();
+    }
+
+    private void applyPage(PageLoader loader, TransactionPage page) {
+        loading.remove(loader.targetPage);
+        if (loader.loaderGeneration != generation) {
+            return; // month changed while loading
+        }
+        failures.remove(loader.targetPage);
+        retryAt.remove(loader.targetPage);
+        if (page.hasNext()) {
+            pageTokens.put(loader.targetPage + 1, page.getNextToken());
+        }
+        pages.put(loader.targetPage, new ArrayList<>(page.getItems()));
+        firePageUpdated(loader.targetPage);
+    }
+
+    private void pageFailed(PageLoader loader, Throwable error) {
+        loading.remove(loader.targetPage);
+        if (loader.loaderGeneration != generation) {
+            return;
+        }
+        int failed = failures.merge(loader.targetPage, 1, Integer::sum);
+        int delay = (int) Math.min(MAX_RETRY_DELAY_MS, (long) RETRY_DELAY_MS << Math.min(failed - 1, 16));
+        retryAt.put(loader.targetPage, System.currentTimeMillis() + delay);
+        System.out.println("Loading page " + loader.targetPage + " of " + loader.month + " failed (attempt "
+                + failed + ", retrying in " + delay + " ms): " + error.getMessage());
+        // Repainting the rows asks for the page again, if it is still on screen
+        Timer retry = new Timer(delay, e -> {
+            if (loader.loaderGeneration == generation) {
+                firePageUpdated(loader.targetPage);
+            }
+        });
+        retry.setRepeats(false);
+        retry.start();
+    }
+
+    private void firePageUpdated(int pageIndex) {
+        int first = pageIndex * PAGE_SIZE;
+        int last = Math.min(rowCount - 1, first + PAGE_SIZE - 1);
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    /**
+     * Fetches one page: by keyset token when the page before it was loaded,
+     * otherwise by seeking to the page's first row.
+     */
+    private final class PageLoader extends SwingWorker<TransactionPage, Void> {
+        private final int loaderGeneration;
+        private final String month;
+        private final int targetPage;
+        private final String token;
+
+        PageLoader(int loaderGeneration, String month, int targetPage, String token) {
+            this.loaderGeneration = loaderGeneration;
+            this.month = month;
+            this.targetPage = targetPage;
+            this.token = token;
+        }
+
+        @Override
+        protected TransactionPage doInBackground() throws Exception {
+            if (targetPage == 0 || token != null) {
+                return transactionService.getMonthPage(month, PAGE_SIZE, token);
+            }
+            return transactionService.getMonthPageAt(month, targetPage * PAGE_SIZE, PAGE_SIZE);
+        }
+
+        @Override
+        protected void done() {
+            try {
+                applyPage(this, get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                loading.remove(targetPage);
+            } catch (ExecutionException e) {
+                pageFailed(this, e.getCause());
+            }
+        }
+    }
+}